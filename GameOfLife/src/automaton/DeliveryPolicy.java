@@ -0,0 +1,53 @@
+package automaton;
+
+/**
+ * Decides which generations are delivered to an observer subscribed to an ObserverBus.
+ * A generation is delivered if at least every generations passed and at least minNanos elapsed since the last delivery.
+ * @param every minimal number of generations between two deliveries.
+ * @param minNanos minimal time between two deliveries, in nanoseconds.
+ */
+public final class DeliveryPolicy {
+    private final long every,minNanos;
+
+    /**
+     * Constructor for DeliveryPolicy.
+     * @param every minimal number of generations between two deliveries.
+     * @param minNanos minimal time between two deliveries, in nanoseconds.
+     */
+    private DeliveryPolicy(long every, long minNanos){
+        this.every=every;
+        this.minNanos=minNanos;
+    }
+
+    /**
+     * Policy delivering every generation.
+     * @return the policy.
+     */
+    public static DeliveryPolicy everyGeneration(){ return new DeliveryPolicy(1,0); }
+
+    /**
+     * Policy delivering one generation out of n.
+     * @param n number of generations between two deliveries.
+     * @return the policy.
+     */
+    public static DeliveryPolicy everyN(long n){ return new DeliveryPolicy(Math.max(1,n),0); }
+
+    /**
+     * Policy delivering at most a number of times per second.
+     * @param hz maximal number of deliveries per second.
+     * @return the policy.
+     */
+    public static DeliveryPolicy maxRate(double hz){ return new DeliveryPolicy(1,(long)(1e9/hz)); }
+
+    /**
+     * Checks if a generation must be delivered. Always true after the generation counter was reset.
+     * @param generation the generation.
+     * @param now current time, from System.nanoTime.
+     * @param lastGeneration last generation delivered.
+     * @param lastNanos time of the last delivery.
+     * @return true if the generation is delivered.
+     */
+    boolean accepts(long generation, long now, long lastGeneration, long lastNanos){
+        return generation<lastGeneration || (generation-lastGeneration>=every && now-lastNanos>=minNanos);
+    }
+}
@@ -0,0 +1,64 @@
+package automaton;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Single slot holding the latest frame published by a producer thread for a consumer thread.
+ * Publishing never waits: a frame that was not taken yet is replaced by the new one and counted as dropped,
+ * so the producer runs at its own speed and the consumer always gets the newest frame.
+ * Frames the consumer is done with, and frames replaced before being taken, are kept as spare frames for the producer to fill again,
+ * so that a steady stream of frames allocates nothing.
+ * @param slot the latest frame, or null if it was taken.
+ * @param spares frames nobody reads, at most SPARES.
+ * @param dropped number of frames replaced before being taken.
+ */
+public class FrameExchanger<T> {
+    private static final int SPARES=2;
+
+    private final AtomicReference<T> slot=new AtomicReference<>();
+    private final ArrayBlockingQueue<T> spares=new ArrayBlockingQueue<>(SPARES);
+    private final AtomicLong dropped=new AtomicLong();
+
+    /**
+     * Publishes a frame, replacing the previous one if it was not taken. The replaced frame becomes a spare frame.
+     * @param frame the frame, which must not be modified afterwards.
+     */
+    public void publish(T frame){
+        T replaced=slot.getAndSet(frame);
+        if(replaced!=null){
+            dropped.incrementAndGet();
+            spares.offer(replaced);
+        }
+    }
+
+    /**
+     * Hands back a frame the consumer will not read anymore, so that the producer can fill it again.
+     * The frame is forgotten if there are already enough spare frames.
+     * @param frame the frame, or null.
+     */
+    public void recycle(T frame){
+        if(frame!=null){
+            spares.offer(frame);
+        }
+    }
+
+    /**
+     * Takes a spare frame, to be filled by the producer then published.
+     * @return the frame, or null if there is none.
+     */
+    public T reuse(){ return spares.poll(); }
+
+    /**
+     * Takes the latest frame.
+     * @return the frame, or null if no frame was published since last call.
+     */
+    public T take(){ return slot.getAndSet(null); }
+
+    /**
+     * Returns number of frames that were replaced before being taken.
+     * @return dropped frame counter.
+     */
+    public long getDropped(){ return dropped.get(); }
+}
@@ -0,0 +1,88 @@
+package automaton;
+
+import grids.Grid;
+import grids.GridBits;
+
+/**
+ * Copy of a generation, made by the simulation thread and drawn by the render thread.
+ * Cells are packed 64 per word, bit k of a word being the cell on column 64*w+k of the row.
+ * A frame handed back by the render thread is filled again with a later generation of the same size, see copy.
+ * @param width number of cells on X axis.
+ * @param height number of cells on Y axis.
+ * @param words number of words of a row.
+ * @param cells the cells, row by row.
+ */
+public final class GenerationFrame {
+    private final int width,height,words;
+    private final long[] cells;
+
+    /**
+     * Constructor for GenerationFrame. Copies the cells of a grid.
+     * @param grid the grid.
+     */
+    public GenerationFrame(Grid grid){
+        width=grid.getWidth();
+        height=grid.getHeight();
+        words=(width+63)>>>6;
+        cells=new long[words*height];
+        copy(grid);
+    }
+
+    /**
+     * Replaces the cells of the frame by those of a grid, without allocating anything.
+     * Must not be called while the frame is read by another thread.
+     * @param grid the grid.
+     * @return false if the grid does not have the size of the frame, which is then left unchanged.
+     */
+    boolean copy(Grid grid){
+        if(grid.getWidth()!=width || grid.getHeight()!=height){
+            return false;
+        }
+        if(grid instanceof GridBits bits){
+            for(int y=0; y<height; y++){
+                for(int w=0; w<words; w++){
+                    cells[y*words+w]=bits.getWord(w,y);
+                }
+            }
+        }else{
+            for(int y=0; y<height; y++){
+                for(int w=0; w<words; w++){
+                    long word=0;
+                    for(int x=w<<6, end=Math.min(width,x+64); x<end; x++){
+                        if(grid.isAlive(x,y)){
+                            word|=1L<<x;
+                        }
+                    }
+                    cells[y*words+w]=word;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Getter on width.
+     * @return number of cells on X axis.
+     */
+    public int getWidth(){ return width; }
+
+    /**
+     * Getter on height.
+     * @return number of cells on Y axis.
+     */
+    public int getHeight(){ return height; }
+
+    /**
+     * Returns number of words of a row.
+     * @return number of words.
+     */
+    public int getWords(){ return words; }
+
+    /**
+     * Returns 64 cells of a row at once.
+     * @param w index of the word in the row.
+     * @param y coordinate on Y axis.
+     * @return the word.
+     */
+    public long getWord(int w, int y){ return cells[y*words+w]; }
+}
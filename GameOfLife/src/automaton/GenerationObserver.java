@@ -1,14 +1,14 @@
 package automaton;
 
 /**
- * Second observer used to output to terminal current generation number and living/dead cells counter.
+ * Second observer used to output to terminal current generation number and living/dead cells counter,
+ * and the measures of the game when it has metrics. Subscribed to the bus, it prints the statistics published
+ * with the generation, so that all figures belong to the same generation.
  * @param game represents an instance of JeuDeLaVie to which this observer will be attached.
- * @param currGen represents current generation counter.
  */
 public class GenerationObserver implements Observer {
 
     private final JeuDeLaVie game;
-    private static int currGen;
 
     /**
      * Constructor for Generation Observer.
@@ -16,14 +16,22 @@ public class GenerationObserver implements Observer {
      */
     public GenerationObserver(JeuDeLaVie x){
         game=x;
-        currGen=0;
     }
 
     /**
-     * Prints in the terminal the number of current generation, living and dead cells.
+     * Prints in the terminal the number of current generation, living and dead cells, whether the grid is in a cycle,
+     * and the time spent in every phase of a generation when the game is measured. Prints nothing before the first delivery.
      */
     public void printStats(){
-        System.out.println("Current Generation: "+currGen+"\nLiving cells : "+game.livingCellCounter()+"\nDead cells : "+game.deadCellCounter());
+        GenerationStats s=game.getStats();
+        if(s==null){
+            return;
+        }
+        System.out.println("Current Generation: "+s.getGeneration()+"\nSeed : "+s.getSeed()+"\nLiving cells : "+s.getLiving()+"\nDead cells : "+s.getDead()
+                +"\nBirths : "+s.getBirths()+"\nDeaths : "+s.getDeaths()
+                +"\nSkipped tiles : "+Math.round(s.getSkippedTiles()*100)+"%"
+                +(s.getCycle()!=null ? "\nCycle : "+s.getCycle() : "")
+                +(s.getMetrics()!=null ? "\n"+s.getMetrics() : ""));
     }
 
     /**
@@ -35,16 +43,10 @@ public class GenerationObserver implements Observer {
     }
 
     /**
-     * Resets generation counter.
-     */
-    public static void reset(){ currGen=0; }
-
-    /**
-     * Update method. Increases generation counter, then clears the terminal and prints new info.
+     * Update method. Clears the terminal and prints new info.
      */
     @Override
     public void actualise() {
-        currGen+=1;
         clearScreen();
         printStats();
     }
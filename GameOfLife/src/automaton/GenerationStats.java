@@ -0,0 +1,94 @@
+package automaton;
+
+import metrics.MetricsSnapshot;
+
+/**
+ * Immutable statistics of a generation, made by the simulation thread and read by the observers of the bus,
+ * which run on other threads while the simulation goes on.
+ * @param generation the generation.
+ * @param seed seed of the last random grid.
+ * @param living number of living cells.
+ * @param dead number of dead cells.
+ * @param births number of cells born during the generation.
+ * @param deaths number of cells that died during the generation.
+ * @param skippedTiles fraction of tiles that were not calculated during the generation.
+ * @param cycle state of the cycle detector, null if the game has none.
+ * @param metrics measures of the game, null if it is not measured.
+ */
+public final class GenerationStats {
+    private final long generation,seed,births,deaths;
+    private final int living,dead;
+    private final double skippedTiles;
+    private final String cycle;
+    private final MetricsSnapshot metrics;
+
+    /**
+     * Constructor for GenerationStats. Reads the current state of a game, so it must run on the simulation thread.
+     * @param game the game.
+     */
+    public GenerationStats(JeuDeLaVie game){
+        generation=game.getGeneration();
+        seed=game.getSeed();
+        living=game.livingCellCounter();
+        dead=game.getXmax()*game.getYmax()-living;
+        births=game.getBirths();
+        deaths=game.getDeaths();
+        skippedTiles=game.getSkippedTiles();
+        cycle=game.getCycleDetector()!=null ? game.getCycleDetector().describe() : null;
+        metrics=game.getMetrics().isEnabled() ? game.getMetrics().snapshot() : null;
+    }
+
+    /**
+     * Getter on generation.
+     * @return the generation.
+     */
+    public long getGeneration(){ return generation; }
+
+    /**
+     * Getter on seed.
+     * @return seed of the last random grid.
+     */
+    public long getSeed(){ return seed; }
+
+    /**
+     * Getter on living.
+     * @return number of living cells.
+     */
+    public int getLiving(){ return living; }
+
+    /**
+     * Getter on dead.
+     * @return number of dead cells.
+     */
+    public int getDead(){ return dead; }
+
+    /**
+     * Getter on births.
+     * @return number of cells born during the generation.
+     */
+    public long getBirths(){ return births; }
+
+    /**
+     * Getter on deaths.
+     * @return number of cells that died during the generation.
+     */
+    public long getDeaths(){ return deaths; }
+
+    /**
+     * Getter on skippedTiles.
+     * @return fraction of tiles that were not calculated, between 0 and 1.
+     */
+    public double getSkippedTiles(){ return skippedTiles; }
+
+    /**
+     * Getter on cycle.
+     * @return state of the cycle detector, null if the game has none.
+     */
+    public String getCycle(){ return cycle; }
+
+    /**
+     * Getter on metrics.
+     * @return measures of the game, null if it is not measured.
+     */
+    public MetricsSnapshot getMetrics(){ return metrics; }
+}
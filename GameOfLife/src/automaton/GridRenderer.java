@@ -0,0 +1,175 @@
+package automaton;
+
+import grids.Grid;
+import metrics.Metrics;
+import metrics.Phase;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Draws generations into an image on its own thread, one pixel per cell, so that painting a panel is a single drawImage.
+ * Generations are published as frames by the simulation thread, which never waits for the renderer:
+ * only the newest frame is drawn and older ones are skipped, and the grid itself is never read while it changes.
+ * Frames are recycled: the frame replaced by a newer one is handed back to the simulation thread, which copies a later generation into it.
+ * The image is written directly through its int[] raster, then swapped with the image shown by the panel.
+ * @param target the component repainted when a new frame is ready.
+ * @param frames the latest published frame.
+ * @param last the last frame drawn, drawn again when the color changes.
+ * @param thread the render thread.
+ * @param pending true if a frame was requested and not rendered yet.
+ * @param front image shown by the panel.
+ * @param back image being rendered.
+ * @param color color of living cells, as ARGB.
+ * @param renderNanos time taken to render the last frame into the image.
+ * @param paintNanos time taken to draw the last frame on the panel.
+ * @param metrics receives the time of every render as the RENDER phase.
+ */
+public class GridRenderer {
+    private final JComponent target;
+    private final FrameExchanger<GenerationFrame> frames;
+    private GenerationFrame last;
+    private final ExecutorService thread;
+    private final AtomicBoolean pending;
+    private BufferedImage front,back;
+    private volatile int color;
+    private volatile long renderNanos,paintNanos;
+    private volatile Metrics metrics;
+
+    /**
+     * Constructor for GridRenderer.
+     * @param target the component repainted when a new frame is ready.
+     */
+    public GridRenderer(JComponent target){
+        this.target=target;
+        frames=new FrameExchanger<>();
+        pending=new AtomicBoolean();
+        color=Color.BLACK.getRGB();
+        metrics=Metrics.NONE;
+        thread=Executors.newSingleThreadExecutor(r -> {
+            Thread t=new Thread(r,"Renderer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Setter for color. Renders a new frame with it.
+     * @param c color of living cells, black if null.
+     */
+    public void setColor(Color c){
+        color=(c==null ? Color.BLACK : c).getRGB();
+        request();
+    }
+
+    /**
+     * Setter for metrics.
+     * @param m receives the time of every render, null to send it nowhere.
+     */
+    public void setMetrics(Metrics m){ metrics=m==null ? Metrics.NONE : m; }
+
+    /**
+     * Publishes a copy of the current generation of a grid and asks for it to be drawn. Returns at once.
+     * The copy goes into a recycled frame, a new one is only allocated when there is none or the size of the grid changed.
+     * @param grid the grid, which can change as soon as this method returns.
+     */
+    public void publish(Grid grid){
+        GenerationFrame frame=frames.reuse();
+        if(frame==null || !frame.copy(grid)){
+            frame=new GenerationFrame(grid);
+        }
+        frames.publish(frame);
+        request();
+    }
+
+    /**
+     * Asks for a new frame. Returns at once, the frame is rendered on the render thread and the target repainted after.
+     */
+    private void request(){
+        if(!thread.isShutdown() && pending.compareAndSet(false,true)){
+            thread.execute(this::render);
+        }
+    }
+
+    /**
+     * Renders the latest frame into the back image, then makes it the front image and repaints the target.
+     */
+    private void render(){
+        pending.set(false);
+        long start=System.nanoTime();
+        GenerationFrame frame=frames.take();
+        if(frame!=null){
+            frames.recycle(last);
+            last=frame;
+        }
+        if(last==null || last.getWidth()==0 || last.getHeight()==0){
+            return;
+        }
+        int width=last.getWidth(), height=last.getHeight();
+        if(back==null || back.getWidth()!=width || back.getHeight()!=height){
+            back=new BufferedImage(width,height,BufferedImage.TYPE_INT_ARGB);
+        }
+        int[] raster=((DataBufferInt)back.getRaster().getDataBuffer()).getData();
+        int alive=color;
+        for(int y=0; y<height; y++){
+            int row=y*width;
+            for(int w=0; w<last.getWords(); w++){
+                long word=last.getWord(w,y);
+                int x0=w<<6, end=Math.min(64,width-x0);
+                for(int b=0; b<end; b++){
+                    raster[row+x0+b]=(word>>>b&1L)!=0 ? alive : 0;
+                }
+            }
+        }
+        synchronized(this){
+            BufferedImage tmp=front;
+            front=back;
+            back=tmp;
+        }
+        renderNanos=System.nanoTime()-start;
+        metrics.record(Phase.RENDER,renderNanos);
+        target.repaint();
+    }
+
+    /**
+     * Draws the last rendered frame. Called from paintComponent of the target.
+     * @param g graphics of the target.
+     * @param tx transform from cells to pixels of the target.
+     */
+    public synchronized void paint(Graphics2D g, AffineTransform tx){
+        long start=System.nanoTime();
+        if(front!=null){
+            g.drawImage(front,tx,null);
+        }
+        paintNanos=System.nanoTime()-start;
+    }
+
+    /**
+     * Returns the time taken to draw the last frame on the target, a single drawImage.
+     * @return time in milliseconds.
+     */
+    public double getPaintMillis(){ return paintNanos/1e6; }
+
+    /**
+     * Returns the time taken to render the last frame into the image, on the render thread.
+     * @return time in milliseconds.
+     */
+    public double getRenderMillis(){ return renderNanos/1e6; }
+
+    /**
+     * Returns number of published frames that were skipped because a newer one arrived before they were drawn.
+     * @return dropped frame counter.
+     */
+    public long getDroppedFrames(){ return frames.getDropped(); }
+
+    /**
+     * Stops the render thread. No frame can be rendered afterwards.
+     */
+    public void shutdown(){ thread.shutdownNow(); }
+}
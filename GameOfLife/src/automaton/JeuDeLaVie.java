@@ -1,32 +1,84 @@
 package automaton;
 import cells.*;
 import commands.Command;
+import commands.CommandLive;
+import engines.Engine;
+import engines.EngineBuffered;
+import grids.Grid;
+import grids.GridBits;
+import grids.Soup;
+import grids.TileTracker;
+import grids.Topology;
+import hashlife.HashLife;
+import history.CycleDetector;
+import history.GenerationHistory;
+import metrics.GenerationEvent;
+import metrics.Metrics;
+import metrics.NotificationEvent;
+import metrics.PatternLoadEvent;
+import metrics.Phase;
+import patterns.Pattern;
+import patterns.PatternLibrary;
+import snapshots.SnapshotFile;
+import visitors.Rule;
 import visitors.Visitor;
+import visitors.VisitorRule;
 
 import java.io.*;
-import java.net.URISyntaxException;
-import java.net.URL;
-import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * One of the main classes of Game Of Life. This class is responsible of algorithmic part of the game.
- * @param observers list of observers.
+ * @param library library of patterns shipped with the game, shared by all games.
+ * @param observers list of observers notified on the simulation thread.
+ * @param bus delivers generations to the other observers on a thread of its own.
  * @param commands list of commands.
  * @param visitor attached visitor.
+ * @param engine strategy used to calculate next generation.
  * @param xMax maximal size of the grid on X axis.
  * @param yMax maximal size of the grid on Y axis.
  * @param density density of living cells. Double between 0 and 1.
- * @param grid main grid of the game.
+ * @param seed seed of the last random grid, which gives the same grid again.
+ * @param grid main grid of the game. Its storage can be changed with setGrid.
+ * @param back second grid in which engines write next generation before swapping it with the main grid.
+ * @param topology shape of the grid, deciding what the neighbours of the cells on the edges are.
+ * @param tiles keeps track of the tiles of the grid that changed, so that engines can skip the others.
+ * @param hashLife HashLife universe used by advance.
+ * @param hashLifeSynced true if the grid has not changed since hashLife was exported into it.
+ * @param generation number of generations calculated since the grid was initialized.
+ * @param births number of cells born during the last generation, as counted by the engine.
+ * @param deaths number of cells that died during the last generation, as counted by the engine.
+ * @param history generations kept to go back with stepBack, null if they are not kept.
+ * @param cycles detects when the grid becomes still or periodic, null if it is not checked.
+ * @param metrics measures the phases of every generation, Metrics.NONE if nothing is measured.
+ * @param stats statistics of the last generation delivered by the bus, read by its observers.
  */
 public class JeuDeLaVie implements Observed{
+    private static final long HASHLIFE_MEMORY=256L<<20;
+    private static PatternLibrary library;
 
     private List<Observer> observers;
+    private final ObserverBus bus;
     private List<Command> commands;
     private Visitor visitor;
+    private Engine engine;
     private int xMax,yMax;
     private double density;
-    private Cell[][] grid;
+    private long seed;
+    private Grid grid,back;
+    private Topology topology;
+    private final TileTracker tiles;
+    private HashLife hashLife;
+    private boolean hashLifeSynced;
+    private long generation;
+    private long births,deaths;
+    private GenerationHistory history;
+    private CycleDetector cycles;
+    private Metrics metrics;
+    private volatile GenerationStats stats;
 
     /**
      * Getter on xMax.
@@ -40,12 +92,19 @@ public class JeuDeLaVie implements Observed{
      */
     public int getYmax(){ return yMax; }
 
+    /**
+     * Setter for dimensions of a square grid.
+     */
+    public void setDimensions(int dim){ setDimensions(dim,dim); }
+
     /**
      * Setter for dimensions.
+     * @param width size of the grid on X axis.
+     * @param height size of the grid on Y axis.
      */
-    public void setDimensions(int dim){
-        xMax=dim;
-        yMax=dim;
+    public void setDimensions(int width, int height){
+        xMax=width;
+        yMax=height;
     }
 
     /**
@@ -53,6 +112,87 @@ public class JeuDeLaVie implements Observed{
      */
     public void setDensity(double den){ density=den; }
 
+    /**
+     * Getter for grid.
+     * @return the grid in which cells are stored.
+     */
+    public Grid getGrid(){ return grid; }
+
+    /**
+     * Setter for grid. Allows to change the storage of the cells, dimensions are taken from the new grid.
+     * @param g the new grid.
+     */
+    public void setGrid(Grid g){
+        grid=g;
+        back=null;
+        hashLifeSynced=false;
+        xMax=g.getWidth();
+        yMax=g.getHeight();
+        resetHistory();
+    }
+
+    /**
+     * Returns the back grid, in which next generation can be written. Created on first call and when the grid changes.
+     * @return a grid with the same storage and dimensions as the main grid.
+     */
+    public Grid getBackGrid(){
+        if(back==null || back.getClass()!=grid.getClass() || back.getWidth()!=grid.getWidth() || back.getHeight()!=grid.getHeight()){
+            back=grid.create(grid.getWidth(),grid.getHeight());
+        }
+        return back;
+    }
+
+    /**
+     * Swaps main grid and back grid, making the generation written in the back grid the current one.
+     */
+    public void swapGrids(){
+        Grid tmp=grid;
+        grid=getBackGrid();
+        back=tmp;
+    }
+
+    /**
+     * Getter for topology.
+     * @return shape of the grid.
+     */
+    public Topology getTopology(){ return topology; }
+
+    /**
+     * Setter for topology. Does not apply to unbounded engines.
+     * Cells on the edges get other neighbours, so every tile is calculated again and cycles seen so far are forgotten.
+     * @param t shape of the grid.
+     */
+    public void setTopology(Topology t){
+        if(t!=topology){
+            topology=t;
+            tiles.reset();
+            resetCycles();
+        }
+    }
+
+    /**
+     * Getter for the tile tracker, used by engines that only calculate tiles where something happens.
+     * @return the tile tracker.
+     */
+    public TileTracker getTileTracker(){ return tiles; }
+
+    /**
+     * Returns the fraction of tiles that were skipped during the last generation.
+     * @return number between 0 and 1, 0 if the engine of the last generation does not skip tiles.
+     */
+    public double getSkippedTiles(){ return tiles.getSkippedFraction(); }
+
+    /**
+     * Setter for engine.
+     * @param e the engine that will calculate next generations.
+     */
+    public void setEngine(Engine e){ engine=e; }
+
+    /**
+     * Getter for engine.
+     * @return current engine.
+     */
+    public Engine getEngine(){ return engine; }
 
     /**
      * Constructor for JeuDeLaVie.
@@ -61,91 +201,352 @@ public class JeuDeLaVie implements Observed{
         density=0.5;
         xMax=500;
         yMax=500;
-        grid=new Cell[yMax][xMax];
-        observers = new ArrayList<>();
+        grid=new GridBits(xMax,yMax);
+        observers = new CopyOnWriteArrayList<>();
+        bus = new ObserverBus();
         commands = new ArrayList<>();
+        engine = new EngineBuffered();
+        tiles = new TileTracker();
+        topology = Topology.PLANE;
+        metrics = Metrics.NONE;
     }
 
     /**
-     * Initializes grid with given density. Uses math.random to determine if the current cell will be dead or alive.
+     * Initializes grid with given density, from a new random seed kept by getSeed.
+     * If dimensions have changed, a new grid with the same storage is created.
      */
-    public void initializeGrid(){
-        for(int i=0; i<yMax; i++){
-            for(int j=0; j<xMax; j++){
-                if(Math.random() < density){
-                    grid[i][j]=new Cell(j,i, StateAlive.getInstance());
-                }else{
-                    grid[i][j]=new Cell(j,i, StateDead.getInstance());
-                }
-            }
+    public void initializeGrid(){ initializeGrid(ThreadLocalRandom.current().nextLong()); }
+
+    /**
+     * Initializes grid with given density, the same way for a given seed. Rows are generated in parallel, 64 cells at a time.
+     * If dimensions have changed, a new grid with the same storage is created.
+     * @param seed seed of the random generator.
+     */
+    public void initializeGrid(long seed){
+        hashLifeSynced=false;
+        generation=0;
+        births=0;
+        deaths=0;
+        this.seed=seed;
+        if(grid.getWidth()!=xMax || grid.getHeight()!=yMax){
+            grid=grid.create(xMax,yMax);
         }
+        Soup.fill(grid,density,seed);
+        resetHistory();
     }
 
+    /**
+     * Getter for seed.
+     * @return seed of the last random grid, given to initializeGrid to get it again.
+     */
+    public long getSeed(){ return seed; }
+
     /**
      * Resets grid by killing all cells.
      */
     public void resetGrid(){
-        for(int i=0; i<yMax; i++){
-            for(int j=0; j<xMax; j++){
-                grid[i][j].die();
-            }
-        }
+        hashLifeSynced=false;
+        generation=0;
+        births=0;
+        deaths=0;
+        grid.clear();
+        resetHistory();
     }
 
     /**
-     * Returns number of living cells.
+     * Returns number of living cells. Free with a GridBits, which keeps count of its cells.
      * @return cpt - cell counter.
      */
-    public int livingCellCounter(){
-        int cpt=0;
-        for(int i=0; i<yMax; i++){
-            for(int j=0; j<xMax; j++){
-                if(grid[i][j].isAlive()) {
-                    cpt+=1;
-                }
-            }
-        }
-        return cpt;
-    }
+    public int livingCellCounter(){ return grid.countAlive(); }
 
     /**
-     * Returns number of dead cells.
+     * Returns number of dead cells, derived from the number of living cells.
      * @return cpt - cell counter.
      */
-    public int deadCellCounter(){
-        int cpt=0;
-        for(int i=0; i<yMax; i++){
-            for(int j=0; j<xMax; j++){
-                if(!grid[i][j].isAlive()) {
-                    cpt+=1;
-                }
-            }
-        }
-        return cpt;
+    public int deadCellCounter(){ return xMax*yMax-livingCellCounter(); }
+
+    /**
+     * Returns number of living cells.
+     * @return population.
+     */
+    public int getPopulation(){ return grid.countAlive(); }
+
+    /**
+     * Getter for births.
+     * @return number of cells born during the last generation. 0 after advance, which does not count them.
+     */
+    public long getBirths(){ return births; }
+
+    /**
+     * Getter for deaths.
+     * @return number of cells that died during the last generation. 0 after advance, which does not count them.
+     */
+    public long getDeaths(){ return deaths; }
+
+    /**
+     * Adds births and deaths to the counters of the generation being calculated. Called by engines.
+     * @param born number of cells born.
+     * @param died number of cells that died.
+     */
+    public void countChanges(long born, long died){
+        births+=born;
+        deaths+=died;
     }
 
     /**
-     * Returns cell from given coordinates.
+     * Returns cell from given coordinates. Reading it changes nothing, changing it through live or die
+     * is taken as an edit of the grid, like placePattern.
      * @return null if coordinates are outside of the grid, cell if cell exists.
      */
     public Cell getCellXY(int x, int y){
-        if(x<=xMax && y<=yMax){
-            return grid[y][x];
+        if(x>=0 && x<xMax && y>=0 && y<yMax){
+            return new CellView(x,y,grid,this::gridEdited);
         }else{
             System.out.println("Out of bounds.");
             return null;
         }
     }
 
+    /**
+     * Called when the grid is changed other than by a generation: HashLife has to import it again,
+     * and the cycle detector forgets the generations it has seen.
+     */
+    private void gridEdited(){
+        hashLifeSynced=false;
+        resetCycles();
+    }
+
+    /**
+     * Checks if cell from given coordinates is alive, without going through a Cell object.
+     * @return true if alive, false if not.
+     */
+    public boolean isAlive(int x, int y){ return grid.isAlive(x,y); }
+
     /**
      * Set of actions taken to calculate next generation.
+     * The engine decides how the generation is calculated, EngineCommands being the reference.
+     */
+    public void calculateNextGen(){ calculateNextGens(1); }
+
+    /**
+     * Calculates next generation with the engine only: no event, no measure, no history and no observer is notified.
+     * The cycle detector is still updated. Used to run many games at once, each on a thread of its own.
+     */
+    public void step(){
+        hashLifeSynced=false;
+        births=0;
+        deaths=0;
+        tiles.startGeneration();
+        engine.compute(this);
+        engine.apply(this);
+        generation++;
+        if(cycles!=null){
+            cycles.update(grid,tiles,generation);
+        }
+    }
+
+    /**
+     * Calculates several generations in a row, then notifies observers once.
+     * Allows to show only one generation out of n when the simulation runs faster than the display.
+     * Every generation is a GenerationEvent for Flight Recorder, recorded only when a recording enables it.
+     * @param n number of generations.
+     */
+    public void calculateNextGens(int n){
+        hashLifeSynced=false;
+        for(int i=0; i<n; i++){
+            births=0;
+            deaths=0;
+            GenerationEvent event=new GenerationEvent();
+            event.begin();
+            long time=metrics.beginGeneration();
+            tiles.startGeneration();
+            engine.compute(this);
+            time=metrics.end(Phase.COMPUTE,time);
+            engine.apply(this);
+            time=metrics.end(Phase.APPLY,time);
+            generation++;
+            if(history!=null){
+                history.record(grid,generation,tiles);
+            }
+            if(cycles!=null){
+                cycles.update(grid,tiles,generation);
+            }
+            metrics.end(Phase.RECORD,time);
+            metrics.endGeneration(births,deaths);
+            event.end();
+            if(event.shouldCommit()){
+                event.generation=generation;
+                event.width=grid.getWidth();
+                event.height=grid.getHeight();
+                event.rule=getRule().toString();
+                event.engine=engine.getClass().getSimpleName();
+                event.births=births;
+                event.deaths=deaths;
+                event.commit();
+            }
+        }
+        long time=metrics.start();
+        notifyObservers();
+        metrics.end(Phase.NOTIFY,time);
+    }
+
+    /**
+     * Getter for generation.
+     * @return number of generations calculated since the grid was initialized or reset.
      */
-    public void calculateNextGen(){
-        distributeVisitors();
-        executeCommands();
+    public long getGeneration(){ return generation; }
+
+    /**
+     * Advances the game by a number of generations at once with HashLife, then shows the result in the grid.
+     * HashLife calculates an unbounded plane: the grid is a window on it, and cells that leave the window keep living
+     * as long as the grid is not modified between two calls.
+     * @param generations number of generations.
+     */
+    public void advance(long generations){
+        if(hashLife==null || !hashLife.getRule().equals(getRule())){
+            hashLife=new HashLife(getRule(),HASHLIFE_MEMORY);
+            hashLifeSynced=false;
+        }
+        if(!hashLifeSynced){
+            hashLife.importGrid(grid);
+        }
+        tiles.startGeneration();
+        hashLife.advance(generations);
+        generation+=generations;
+        births=0;
+        deaths=0;
+        hashLife.exportWindow(grid,0,0);
+        hashLifeSynced=true;
+        resetCycles();
+        if(history!=null){
+            history.record(grid,generation);
+        }
+        notifyObservers();
+    }
+
+    /**
+     * Saves the grid, rule, generation and topology of the game into a binary snapshot file.
+     * @param path the file, replaced if it exists.
+     * @throws IOException if the file cannot be written.
+     */
+    public void saveSnapshot(Path path) throws IOException {
+        SnapshotFile.save(path,grid,getRule(),generation,topology);
+    }
+
+    /**
+     * Restores a game saved by saveSnapshot. The grid keeps its storage and takes the dimensions of the snapshot,
+     * and the visitor is replaced if the rule of the snapshot is not the current one.
+     * @param path the file.
+     * @throws IOException if the file cannot be read or is not a snapshot.
+     */
+    public void loadSnapshot(Path path) throws IOException {
+        SnapshotFile snapshot=SnapshotFile.open(path);
+        Grid g=grid;
+        if(g.getWidth()!=snapshot.getWidth() || g.getHeight()!=snapshot.getHeight()){
+            g=grid.create(snapshot.getWidth(),snapshot.getHeight());
+        }
+        snapshot.readInto(g);
+        if(g!=grid){
+            setGrid(g);
+        }
+        if(visitor==null || !snapshot.getRule().equals(getRule())){
+            setVisitor(new VisitorRule(this,snapshot.getRule()));
+        }
+        hashLifeSynced=false;
+        setTopology(snapshot.getTopology());
+        generation=snapshot.getGeneration();
+        births=0;
+        deaths=0;
+        resetHistory();
+    }
+
+    /**
+     * Setter for history. The current generation becomes the oldest one kept.
+     * @param h history in which generations will be recorded, null to stop keeping them.
+     */
+    public void setHistory(GenerationHistory h){
+        history=h;
+        resetHistory();
+    }
+
+    /**
+     * Getter for history.
+     * @return generations kept to go back, null if they are not kept.
+     */
+    public GenerationHistory getHistory(){ return history; }
+
+    /**
+     * Forgets the generations kept, the current one becoming the oldest, and the ones seen by the cycle detector.
+     * Called when the grid is replaced.
+     */
+    private void resetHistory(){
+        if(history!=null){
+            history.reset(grid,generation);
+        }
+        resetCycles();
+    }
+
+    /**
+     * Setter for the cycle detector.
+     * @param c detector updated after every generation, null to stop checking for cycles.
+     */
+    public void setCycleDetector(CycleDetector c){
+        cycles=c;
+        resetCycles();
+    }
+
+    /**
+     * Getter for the cycle detector.
+     * @return detector telling if the grid is still or periodic, null if it is not checked.
+     */
+    public CycleDetector getCycleDetector(){ return cycles; }
+
+    /**
+     * Forgets the generations seen by the cycle detector. Called whenever the grid is modified other than by a generation.
+     */
+    private void resetCycles(){
+        if(cycles!=null){
+            cycles.reset();
+        }
+    }
+
+    /**
+     * Goes back a number of generations with the history, without calculating anything, then notifies observers.
+     * Changes made to the grid since the last generation are lost.
+     * @param n number of generations, stops at the oldest generation kept.
+     * @return false if generations are not kept or there is none to go back to.
+     */
+    public boolean stepBack(int n){
+        if(history==null || history.getDepth()==0){
+            return false;
+        }
+        generation=history.stepBack(n,grid);
+        hashLifeSynced=false;
+        resetCycles();
+        births=0;
+        deaths=0;
         notifyObservers();
+        return true;
     }
 
+    /**
+     * Setter for metrics. Generations calculated by advance are not measured.
+     * @param m measures of the phases of every generation, null to measure nothing.
+     */
+    public void setMetrics(Metrics m){ metrics=m==null ? Metrics.NONE : m; }
+
+    /**
+     * Getter for metrics.
+     * @return measures of the phases of every generation, Metrics.NONE if nothing is measured.
+     */
+    public Metrics getMetrics(){ return metrics; }
+
+    /**
+     * Getter for the HashLife universe used by advance.
+     * @return the universe, or null if advance was never called.
+     */
+    public HashLife getHashLife(){ return hashLife; }
+
 
     /*
        ####################################
@@ -154,24 +555,62 @@ public class JeuDeLaVie implements Observed{
     */
 
     /**
-     * Adds observer to the list of observers.
+     * Adds observer to the list of observers, notified on the simulation thread after every generation.
+     * Does nothing if it is already in the list. Such observers must be fast, slow ones should use subscribe.
      * @param x the observer that will be added.
      */
-    public void addObserver(Observer x){ this.observers.add(x); }
+    public void addObserver(Observer x){
+        if(!observers.contains(x)){
+            this.observers.add(x);
+        }
+    }
 
     /**
-     * Removes observer to the list of observers.
+     * Removes observer to the list of observers, or from the subscribers of the bus.
      * @param x the observer that will be removed.
      */
-    public void removeObserver(Observer x){ this.observers.remove(x); }
+    public void removeObserver(Observer x){
+        this.observers.remove(x);
+        bus.unsubscribe(x);
+    }
+
+    /**
+     * Subscribes an observer that runs on the thread of the observer bus, so that the simulation never waits for it.
+     * @param x the observer.
+     * @param policy decides which generations are delivered to it.
+     */
+    public void subscribe(Observer x, DeliveryPolicy policy){ bus.subscribe(x,policy); }
+
+    /**
+     * Getter for the observer bus.
+     * @return the bus delivering generations to subscribed observers.
+     */
+    public ObserverBus getObserverBus(){ return bus; }
+
+    /**
+     * Getter for stats. Observers of the bus read the generation from it rather than from the game,
+     * which the simulation thread changes while they run.
+     * @return statistics of the last generation delivered by the bus, null if none was delivered.
+     */
+    public GenerationStats getStats(){ return stats; }
 
     /**
-     * Notifies all observers from list of observers so that they take action.
+     * Notifies all observers from list of observers so that they take action, then hands the generation to the bus.
+     * Recorded as a NotificationEvent when Flight Recorder enables it.
      */
     public void notifyObservers(){
+        NotificationEvent event=new NotificationEvent();
+        event.begin();
         for(Observer x: observers){
             x.actualise();
         }
+        bus.publish(generation,() -> stats=new GenerationStats(this));
+        event.end();
+        if(event.shouldCommit()){
+            event.generation=generation;
+            event.observers=observers.size();
+            event.commit();
+        }
     }
 
     /*
@@ -188,10 +627,16 @@ public class JeuDeLaVie implements Observed{
 
     /**
      * Executes all commands from the list of commands the empties the list.
+     * Every command changes the state of a cell, so they are counted as births and deaths.
      */
     public void executeCommands(){
         for(Command x: commands){
             x.execute();
+            if(x instanceof CommandLive){
+                births++;
+            }else{
+                deaths++;
+            }
         }
         commands.clear();
     }
@@ -204,8 +649,17 @@ public class JeuDeLaVie implements Observed{
 
     /**
      * Sets current visitor.
+     * If its rule is another one, every tile is calculated again and cycles seen so far are forgotten,
+     * since still tiles may change under the new rule.
+     * @param v the visitor.
      */
-    public void setVisitor(Visitor v){ visitor=v; }
+    public void setVisitor(Visitor v){
+        if(visitor==null || v==null || !v.getRule().equals(visitor.getRule())){
+            tiles.reset();
+            resetCycles();
+        }
+        visitor=v;
+    }
 
     /**
      * Getter for visitor.
@@ -213,48 +667,71 @@ public class JeuDeLaVie implements Observed{
      */
     public Visitor getVisitor(){ return visitor; }
 
+    /**
+     * Getter for the rule of current visitor.
+     * @return current rule.
+     */
+    public Rule getRule(){ return visitor.getRule(); }
+
     /**
      * Distributes visitor to every cell in the grid.
      */
     public void distributeVisitors() {
-        for(int i = 0;i < xMax;i++) {
-            for(int j = 0; j < yMax;j++) {
-                grid[i][j].accept(visitor);
+        for(int i = 0;i < yMax;i++) {
+            for(int j = 0; j < xMax;j++) {
+                grid.getCell(j,i).accept(visitor);
             }
         }
     }
 
     /**
-     * Allows to load specific pattern from a text file.
-     * @param number index of pattern that will be loaded.
-     */
-    public void loadPattern(char number) throws IOException, URISyntaxException {
-
-        InputStream in = getClass().getResourceAsStream("/patterns.txt");
-        BufferedReader reader = new BufferedReader(new InputStreamReader(in));
-
-        int c,i=0,j=0;
-        char character;
-        while((c = reader.read()) != -1) {
-            character = (char) c;
-            if(character==number){
-                while(character != '!'){
-                    if(character=='.'){
-                        grid[i][j].die();
-                        j++;
-                    }else if(character=='x'){
-                        grid[i][j].live();
-                        j++;
-                    }
-                    if(character=='\n'){
-                        System.out.print('\n');
-                        i++;
-                        j=0;
-                    }
-                    c = reader.read();
-                    character = (char)c;
-                }
-            }
+     * Returns the library of patterns shipped with the game, opened on first call.
+     * @return the library.
+     * @throws IOException if the library cannot be read.
+     */
+    public static synchronized PatternLibrary getPatternLibrary() throws IOException {
+        if(library==null){
+            library=PatternLibrary.fromResource("/patterns.cells");
+        }
+        return library;
+    }
+
+    /**
+     * Allows to load specific pattern from the pattern library, in the upper left corner of the grid.
+     * @param number index of pattern that will be loaded, starting from '1'.
+     */
+    public void loadPattern(char number) throws IOException {
+        loadPattern(getPatternLibrary().getNames().get(number-'1'));
+    }
+
+    /**
+     * Loads a pattern of the pattern library in the upper left corner of the grid.
+     * Recorded as a PatternLoadEvent when Flight Recorder enables it.
+     * @param name name of the pattern.
+     */
+    public void loadPattern(String name) throws IOException {
+        PatternLoadEvent event=new PatternLoadEvent();
+        event.begin();
+        Pattern p=getPatternLibrary().get(name);
+        placePattern(p,0,0);
+        event.end();
+        if(event.shouldCommit()){
+            event.pattern=name;
+            event.width=p.getWidth();
+            event.height=p.getHeight();
+            event.cells=p.countAlive();
+            event.commit();
         }
     }
+
+    /**
+     * Writes a pattern into the grid. Its whole rectangle is written, dead cells included.
+     * @param p the pattern.
+     * @param x column of the first column of the pattern.
+     * @param y row of the first row of the pattern.
+     */
+    public void placePattern(Pattern p, int x, int y){
+        p.placeOn(grid,x,y);
+        gridEdited();
+    }
 }
@@ -1,10 +1,16 @@
 package automaton;
 
+import history.CycleDetector;
+import history.GenerationHistory;
+import metrics.GenerationMetrics;
+import metrics.RepaintEvent;
+import visitors.Rule;
 import visitors.Visitor;
 import visitors.VisitorClassic;
 import visitors.VisitorDayNight;
 import visitors.VisitorHighLife;
 
+import javax.management.JMException;
 import javax.swing.*;
 import javax.swing.border.EtchedBorder;
 import javax.swing.event.ChangeEvent;
@@ -12,8 +18,9 @@ import javax.swing.event.ChangeListener;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 import java.io.IOException;
-import java.net.URISyntaxException;
+import java.nio.file.Path;
 
 /**
  * Class that represents the Graphic User Interface of the JeuDeLaVie.
@@ -23,25 +30,31 @@ import java.net.URISyntaxException;
  * @param simPanel is the central panel that shows the graphical representation of Game of Life.
  * @param setupPanel is the panel that contains settings.
  * @param contentPanel is the panel that contains simPanel and other smaller panels.
- * @param sleep is the value of pauses between each generation.
+ * @param sleep is the value of pauses between each generation, in milliseconds. 0 means as fast as possible.
  * @param cellSize is the size of a single cell in pixels. Needed to implement zoom.
- * @param pause boolean that allows to put the game on pause.
  * @param setup boolean that allows to check if we are in the settings menu.
  * @param zoom represents zoom value.
- * @param pauseHandler is a thread that stops the execution of the main loop when the game is on pause.
+ * @param scheduler runs the main loop on its own thread and puts it on pause.
  * @param currentVisitor as the name suggests - is the current visitor. This variable allows to change the rules of the game without restarting it.
  * @param paintColor is the color of cells in the SimPanel. It can be altered by ColorChooser.
+ * @param renderer draws the grid of the SimPanel into an image on its own thread.
  */
 public class JeuDeLaVieUI extends JFrame implements Observer{
+    private static final long HISTORY_BYTES=64L<<20;
+    private static final int HISTORY_KEYFRAMES=64;
+    private static final long HISTORY_CELLS=1L<<20;
+    private static final int CYCLE_GENERATIONS=1024;
+
     private final JeuDeLaVie game;
     private final CardLayout layout;
     private JPanel mainPanel, simPanel, setupPanel, contentPanel;
     private int sleep = 150,cellSize;
-    private boolean pause=true,setup=true;
+    private boolean setup=true;
     private double zoom;
-    private Thread pauseHandler;
+    private final SimulationScheduler scheduler;
     private Visitor currentVisitor;
     private Color paintColor;
+    private GridRenderer renderer;
 
     /**
      * Constructor for GUI.
@@ -59,6 +72,20 @@ public class JeuDeLaVieUI extends JFrame implements Observer{
 
         game=x;
         zoom=1;
+        scheduler=new SimulationScheduler(game);
+        setSpeed(sleep);
+        game.setCycleDetector(new CycleDetector(CYCLE_GENERATIONS));
+        GenerationMetrics metrics=new GenerationMetrics();
+        game.setMetrics(metrics);
+        try {
+            metrics.register("ui");
+        } catch (JMException jmException) {
+            jmException.printStackTrace();
+        }
+
+        // Observers are registered once: the frame is copied after every generation, statistics are printed 10 times a second
+        game.addObserver(this);
+        game.subscribe(new GenerationObserver(game),DeliveryPolicy.maxRate(10));
 
         // Setting up main panel
         layout = new CardLayout();
@@ -80,7 +107,7 @@ public class JeuDeLaVieUI extends JFrame implements Observer{
      * Method that resets game settings when user goes back to the main menu.
      */
     public void resetGame(){
-        game.resetGrid();
+        execute(game::resetGrid);
         setSpeed(150);
 
     }
@@ -89,7 +116,12 @@ public class JeuDeLaVieUI extends JFrame implements Observer{
      * Setter for color.
       * @param x is the color that will be used in paint method. Always originates from ColorChooser.
      */
-    public void setColor(Color x){ paintColor=x; }
+    public void setColor(Color x){
+        paintColor=x;
+        if(renderer!=null){
+            renderer.setColor(x);
+        }
+    }
 
     /**
      * Getter for sleep value.
@@ -108,7 +140,7 @@ public class JeuDeLaVieUI extends JFrame implements Observer{
      * Setter for pause.
      * @param value boolean to put or remove pause.
      */
-    public void setPause(boolean value) { pause=value; }
+    public void setPause(boolean value) { scheduler.setPaused(value); }
 
     /**
      * Resets cellSize to their original size depending on the screen size.
@@ -140,44 +172,114 @@ public class JeuDeLaVieUI extends JFrame implements Observer{
     public int getCellSize(){ return cellSize; }
 
     /**
-     * Setter for sleep value.
-     * @param value new sleep value.
+     * Setter for sleep value. The scheduler aims at one generation every sleep milliseconds.
+     * @param value new sleep value, 0 to run as fast as possible.
      */
-    public void setSpeed(int value){ sleep=value; }
+    public void setSpeed(int value){
+        sleep=value;
+        scheduler.setRate(value==0 ? 0 : 1000.0/value);
+    }
+
+    /**
+     * Sets the number of generations calculated for each frame shown (hyper-step).
+     * @param n number of generations, 1 to show all generations.
+     */
+    public void setGenerationsPerFrame(int n){ scheduler.setGenerationsPerFrame(n); }
+
+    /**
+     * Sets whether the simulation pauses itself when the grid becomes still or periodic.
+     * @param value true to pause on a cycle.
+     */
+    public void setStopOnCycle(boolean value){ scheduler.setStopOnCycle(value); }
+
+    /**
+     * Returns the number of generations per second actually reached.
+     * @return generations per second, 0 when paused.
+     */
+    public double getAchievedRate(){ return scheduler.getAchievedRate(); }
 
     /**
      * Pause/continue imitator. If the game was paused - starts it. If the game is running - puts it on pause.
      */
-    public void pause(){
-        if(pause){
-            pause=false;
-        }else {
-            pause = true;
-        }
-    }
+    public void pause(){ scheduler.setPaused(!scheduler.isPaused()); }
 
     /**
      * Getter for pause boolean.
      * @return boolean indicating if the game is paused or not.
      */
-    public boolean getPause(){ return pause; }
+    public boolean getPause(){ return scheduler.isPaused(); }
+
+    /**
+     * Runs a task on the simulation thread, between two generations. Tasks changing the game or publishing its grid
+     * run there, so that the grid is never read or written by two threads at once.
+     * @param task the task.
+     */
+    public void execute(Runnable task){ scheduler.execute(task); }
 
     /**
-     * Calculates next generation one time.
+     * Calculates next generation one time, on the simulation thread.
      * Used by button with the same name.
      */
-    public void step(){ game.calculateNextGen(); }
+    public void step(){ execute(game::calculateNextGen); }
 
     /**
-     * Creates JPanel that will have graphical representation of the JeuDeLaVie in it.
+     * Goes back one generation, from the history of the game, on the simulation thread.
+     * Used by the step back button.
      */
-    public void createSimPanel(){ simPanel = new SimPanel(); }
+    public void stepBack(){ execute(() -> game.stepBack(1)); }
+
+    /**
+     * Creates JPanel that will have graphical representation of the JeuDeLaVie in it, with its renderer.
+     */
+    public void createSimPanel(){
+        if(renderer!=null){
+            renderer.shutdown();
+        }
+        simPanel = new SimPanel();
+        renderer = new GridRenderer(simPanel);
+        renderer.setColor(paintColor);
+        renderer.setMetrics(game.getMetrics());
+    }
 
     /**
-     * Resets the grid.
+     * Resets the grid. Runs on the simulation thread, see execute.
      */
     public void reset(){ game.initializeGrid(); }
 
+    /**
+     * Restores a snapshot saved by saveSnapshot. The simulation is paused, and the visitor installed by the game for the rule
+     * of the snapshot becomes the current visitor, so that it is kept when the simulation is launched again.
+     * Runs on the simulation thread, see execute: the caller resets the size of the cells on the event dispatch thread.
+     * @param path the file.
+     * @throws IOException if the file cannot be read or is not a snapshot.
+     */
+    public void loadSnapshot(Path path) throws IOException {
+        setPause(true);
+        game.loadSnapshot(path);
+        setCurrentVisitor(game.getVisitor());
+        updateHistory();
+        actualise();
+    }
+
+    /**
+     * Keeps the generations of the game to go back with the step back button, only if the grid has at most HISTORY_CELLS cells.
+     * Larger grids are not recorded, since recording them would slow every generation down.
+     */
+    private void updateHistory(){
+        if((long)game.getXmax()*game.getYmax()<=HISTORY_CELLS){
+            game.setHistory(new GenerationHistory(HISTORY_BYTES,HISTORY_KEYFRAMES));
+        }else{
+            game.setHistory(null);
+        }
+    }
+
+    /**
+     * Saves the grid, rule, generation and topology of the game into a snapshot file. Runs on the simulation thread, see execute.
+     * @param path the file, replaced if it exists.
+     * @throws IOException if the file cannot be written.
+     */
+    public void saveSnapshot(Path path) throws IOException { game.saveSnapshot(path); }
+
     /**
      * Main panel have 2 panels attached to it - content panel and setup panel.
      * This method allows to switch between them without creating new frames.
@@ -202,64 +304,67 @@ public class JeuDeLaVieUI extends JFrame implements Observer{
     }
 
     /**
-     * Kills pause handling thread.
-     */
-    public void killPauseHandler(){ pauseHandler.interrupt(); }
-
-    /**
-     * Main loop that calculates next generations.
+     * Main loop that calculates next generations. The current visitor is installed on the simulation thread.
      */
     public void launchSimulation(){
-        game.setVisitor(currentVisitor);
+        Visitor visitor = currentVisitor;
+        execute(() -> {
+            game.setVisitor(visitor);
+            updateHistory();
+        });
         this.setVisible(true);
-        game.addObserver(this);
-        game.addObserver(new GenerationObserver(game));
-
-        if(pauseHandler==null){
-            pauseHandler = new Thread(() -> {
-                while(true) {
-                    try {
-                        Thread.sleep(sleep);
-                    } catch (InterruptedException e) {
-                    }
-                    if(!getPause()){
-                        game.calculateNextGen();
-                    }
-                }
-            });
-            pauseHandler.start();
-        }
+
+        scheduler.start();
     }
 
     /**
-     * Repaints the simPanel. Observer method.
+     * Publishes current generation to the renderer of the simPanel. Observer method.
+     * Called by the simulation thread, which goes on with next generation without waiting for the frame to be drawn.
      */
-    public void actualise(){ simPanel.repaint(); }
+    public void actualise(){
+        if(renderer!=null){
+            renderer.publish(game.getGrid());
+        }
+    }
 
     /**
      * Inner class SimPanel. The only difference with base JPanel is redefined paintComponent method.
+     * The grid is drawn by the renderer into an image, which is scaled to the cell size and zoom with a single drawImage.
+     * Time taken by the last drawImage and by the last render, and skipped frames are shown in the upper left corner.
+     * Every paint is a RepaintEvent for Flight Recorder, recorded only when a recording enables it.
      */
     public class SimPanel extends JPanel{
         @Override
         public void paintComponent(Graphics g){
+            RepaintEvent event=new RepaintEvent();
+            event.begin();
             super.paintComponent(g);
 
-            g.setColor(paintColor);
-
             Graphics2D g2 = (Graphics2D)g;
+            AffineTransform base = g2.getTransform();
 
+            int offset=(400-game.getXmax()*getCellSize())/2;
             AffineTransform tx = new AffineTransform();
             tx.translate(200,200);
             tx.scale(getZoom(),getZoom());
             tx.translate(-200,-200);
-            g2.setTransform(tx);
-
-            for(int x=0; x<game.getXmax();x++){
-                for(int y=0; y<game.getYmax();y++){
-                    if(game.getCellXY(x,y).isAlive()){
-                        g.fillRect(x*getCellSize()+((400-game.getXmax()*getCellSize())/2),y*getCellSize()+((400-game.getXmax()*getCellSize())/2),getCellSize(),getCellSize());
-                    }
-                }
+            tx.translate(offset,offset);
+            tx.scale(getCellSize(),getCellSize());
+            renderer.paint(g2,tx);
+
+            g2.setTransform(base);
+            g2.setColor(Color.GRAY);
+            g2.drawString(String.format("frame %.2f ms, render %.2f ms, skipped %d, %.1f gen/s",
+                    renderer.getPaintMillis(),renderer.getRenderMillis(),renderer.getDroppedFrames(),
+                    game.getMetrics().snapshot().getGenerationsPerSecond()),5,15);
+
+            event.end();
+            if(event.shouldCommit()){
+                event.width=game.getXmax();
+                event.height=game.getYmax();
+                event.cellSize=getCellSize();
+                event.zoom=getZoom();
+                event.commit();
             }
         }
     }
@@ -276,19 +381,26 @@ public class JeuDeLaVieUI extends JFrame implements Observer{
      * @param gbc is a GridBagConstraint that is used to position different panels of the grid.
      * @param tmenu top menu.
      * @param bmenu bottom menu.
+     * @param perFrame number of generations calculated for each frame shown (hyper-step).
+     * @param rate label showing the number of generations per second actually reached.
+     * @param rateTimer timer refreshing the rate label and the play/pause icon, which changes when the simulation stops on a cycle.
+     * @param stopOnCycle check box pausing the simulation when the grid becomes still or periodic.
      * @param lmenu left menu.
      * @param colorPanel color picker panel.
      * @param start start button.
      * @param step step button.
+     * @param stepBack step back button, going back one generation.
      * @param reset reset button.
      * @param zIn zoom in button.
      * @param zOut zoom out button.
      * @param zoom 1:1 ration button.
      * @param tryButton button that allows user to try different patters and rulesets.
+     * @param open button that loads a snapshot.
+     * @param save button that saves a snapshot.
      * @param colorButton color picker button.
      * @param parent is the parent of MainGrid - instance of JeuDeLaVieUI.
      * @param speedSlider is a slider that allows to regulate speed of exection.
-     * @param ruleset is a list of rulesets.
+     * @param ruleset is a list of rulesets, followed by the rule of a loaded snapshot when it is none of them.
      * @param resume resume button icon.
      * @param pause pause button icon.
      * @param rules rules label.
@@ -302,16 +414,20 @@ public class JeuDeLaVieUI extends JFrame implements Observer{
     public class MainGrid extends JPanel{
         GridBagConstraints gbc;
         JPanel tmenu,bmenu,lmenu,colorPanel,logout;
-        JButton start,step,reset,zIn,zoom,zOut,tryButton,colorbutton,logbutton;
+        JButton start,step,stepBack,reset,zIn,zoom,zOut,tryButton,colorbutton,logbutton,open,save;
         JeuDeLaVieUI parent;
         JSlider speedSlider;
-        JComboBox ruleset;
+        JComboBox<String> ruleset;
         ImageIcon resume;
         ImageIcon pause;
         JLabel rules, lfigures;
         JFrame colors;
         JColorChooser colorpicker;
-        JComboBox patterns;
+        JComboBox<String> patterns;
+        JSpinner perFrame;
+        JLabel rate;
+        Timer rateTimer;
+        JCheckBox stopOnCycle;
 
         /**
          * Constructor of the MainGrid.
@@ -367,18 +483,18 @@ public class JeuDeLaVieUI extends JFrame implements Observer{
             // Rulesets (aka Visitors)
             String[] options = {"Classic", "Day & Night", "HighLife"};
             rules = new JLabel("Ruleset : ");
-            ruleset = new JComboBox(options);
-
-            if (game.getVisitor() instanceof VisitorClassic) {
-                ruleset.setSelectedIndex(0);
-            } else if (game.getVisitor() instanceof VisitorDayNight){
-                ruleset.setSelectedIndex(1);
-            }else{
-                ruleset.setSelectedIndex(2);
+            ruleset = new JComboBox<>(options);
+            selectRuleset();
+
+            patterns = new JComboBox<>();
+            patterns.addItem("Classic");
+            try {
+                for(String name: JeuDeLaVie.getPatternLibrary().getNames()){
+                    patterns.addItem(name);
+                }
+            } catch (IOException ioException) {
+                ioException.printStackTrace();
             }
-
-            String[] pattern = {"Classic","Snails","Replicators","Glider Gun"};
-            patterns = new JComboBox(pattern);
             lfigures = new JLabel("Patterns : ");
             patterns.setSelectedIndex(0);
             gbc.gridx=1;
@@ -389,6 +505,12 @@ public class JeuDeLaVieUI extends JFrame implements Observer{
             tmenu.add(ruleset);
             tryButton = new JButton(new ImageIcon(getClass().getClassLoader().getResource("try.png")));
             tmenu.add(tryButton,gbc);
+            open = new JButton("Open");
+            open.setToolTipText("Load a snapshot");
+            save = new JButton("Save");
+            save.setToolTipText("Save a snapshot");
+            tmenu.add(open);
+            tmenu.add(save);
             gbc.fill = GridBagConstraints.HORIZONTAL;
             add(tmenu, gbc);
 
@@ -437,14 +559,26 @@ public class JeuDeLaVieUI extends JFrame implements Observer{
             bmenu.setBorder(BorderFactory.createTitledBorder("Navigation"));
             start = new JButton(pause);
             step = new JButton(new ImageIcon(getClass().getClassLoader().getResource("step.png")));
+            stepBack = new JButton(mirror((ImageIcon)step.getIcon()));
+            stepBack.setToolTipText("Step back");
             reset = new JButton(new ImageIcon(getClass().getClassLoader().getResource("reset.png")));
             gbc.gridx = 0;
             gbc.gridy = 2;
             gbc.gridwidth = 5;
             gbc.fill = GridBagConstraints.HORIZONTAL;
+            perFrame = new JSpinner(new SpinnerNumberModel(1,1,100000,1));
+            perFrame.setToolTipText("Generations per frame");
+            rate = new JLabel("0 gen/s");
             bmenu.add(start);
+            bmenu.add(stepBack);
             bmenu.add(step);
             bmenu.add(reset);
+            bmenu.add(new JLabel("Gens/frame : "));
+            bmenu.add(perFrame);
+            bmenu.add(rate);
+            stopOnCycle = new JCheckBox("Stop when stable",scheduler.isStopOnCycle());
+            stopOnCycle.setToolTipText("Pauses when the grid stops changing or repeats itself");
+            bmenu.add(stopOnCycle);
             add(bmenu,gbc);
 
 
@@ -483,47 +617,70 @@ public class JeuDeLaVieUI extends JFrame implements Observer{
                 }
             });
 
+            // Generations per frame listener - shows only one generation out of n
+            perFrame.addChangeListener(e -> parent.setGenerationsPerFrame((Integer)perFrame.getValue()));
+
+            // Stop on cycle check box listener
+            stopOnCycle.addActionListener(e -> parent.setStopOnCycle(stopOnCycle.isSelected()));
+
+            // Refreshes the achieved rate twice a second
+            rateTimer = new Timer(500, e -> {
+                rate.setText(String.format("%.0f gen/s",parent.getAchievedRate()));
+                start.setIcon(parent.getPause() ? resume : pause);
+            });
+            rateTimer.start();
+
             // Try button. Allows to change current ruleset.
             // Also supposed to show different patterns, but I doubt I will have time to implement it.
             tryButton.addActionListener (e -> {
-                parent.setPause(true);
-                try {
-                    Thread.sleep(speedSlider.getValue());
-                } catch (InterruptedException x1) {
-                }
-
-                try {
-                    if(patterns.getSelectedIndex()==0){
-                        parent.reset();
-                        GenerationObserver.reset();
-                        parent.actualise();
-                    }else if(patterns.getSelectedIndex()==1){
-                        game.loadPattern('1');
-                        parent.actualise();
-                    }else if(patterns.getSelectedIndex()==2){
-                        game.loadPattern('2');
-                        parent.actualise();
-                    }else if(patterns.getSelectedIndex()==3){
-                        game.loadPattern('3');
-                        parent.actualise();
+                String pattern = selectedPattern();
+                int rules = ruleset.getSelectedIndex();
+                parent.execute(() -> {
+                    loadPattern(pattern);
+                    if(rules==0){
+                        game.setVisitor(VisitorClassic.getInstance(game));
+                    }else if(rules==1){
+                        game.setVisitor(VisitorDayNight.getInstance(game));
+                    }else if(rules==2){
+                        game.setVisitor(VisitorHighLife.getInstance(game));
                     }
-                } catch (IOException ioException) {
-                    ioException.printStackTrace();
-                } catch (URISyntaxException uriSyntaxException) {
-                    uriSyntaxException.printStackTrace();
+                });
+                parent.setPause(false);
+            });
+
+            // Open button listener - loads a snapshot and shows its rule in the list of rulesets
+            open.addActionListener(e -> {
+                JFileChooser chooser = new JFileChooser();
+                if(chooser.showOpenDialog(this)==JFileChooser.APPROVE_OPTION){
+                    Path path = chooser.getSelectedFile().toPath();
+                    parent.execute(() -> {
+                        try {
+                            parent.loadSnapshot(path);
+                            SwingUtilities.invokeLater(() -> {
+                                parent.resetCellSize();
+                                selectRuleset();
+                                start.setIcon(resume);
+                            });
+                        } catch (IOException ioException) {
+                            ioException.printStackTrace();
+                        }
+                    });
                 }
+            });
 
-                if(ruleset.getSelectedIndex()==0){
-                    game.setVisitor(VisitorClassic.getInstance(game));
-                    game.distributeVisitors();
-                }else if(ruleset.getSelectedIndex()==1){
-                    game.setVisitor(VisitorDayNight.getInstance(game));
-                    game.distributeVisitors();
-                }else{
-                    game.setVisitor(VisitorHighLife.getInstance(game));
-                    game.distributeVisitors();
+            // Save button listener
+            save.addActionListener(e -> {
+                JFileChooser chooser = new JFileChooser();
+                if(chooser.showSaveDialog(this)==JFileChooser.APPROVE_OPTION){
+                    Path path = chooser.getSelectedFile().toPath();
+                    parent.execute(() -> {
+                        try {
+                            parent.saveSnapshot(path);
+                        } catch (IOException ioException) {
+                            ioException.printStackTrace();
+                        }
+                    });
                 }
-                parent.setPause(false);
             });
 
             // Start button listener
@@ -542,32 +699,21 @@ public class JeuDeLaVieUI extends JFrame implements Observer{
                     parent.step();
                 } });
 
+            // Step back button listener
+            stepBack.addActionListener(e -> {
+                if(parent.getPause()){
+                    parent.stepBack();
+                } });
+
             // Reset button listener
             reset.addActionListener(e -> {
-                try {
-                    if(patterns.getSelectedIndex()==0){
-                        parent.reset();
-                        GenerationObserver.reset();
-                        parent.actualise();
-                    }else if(patterns.getSelectedIndex()==1){
-                        game.loadPattern('1');
-                        parent.actualise();
-                    }else if(patterns.getSelectedIndex()==2){
-                        game.loadPattern('2');
-                        parent.actualise();
-                    }else if(patterns.getSelectedIndex()==3){
-                        game.loadPattern('3');
-                        parent.actualise();
-                    }
-                } catch (IOException ioException) {
-                    ioException.printStackTrace();
-                } catch (URISyntaxException uriSyntaxException) {
-                    uriSyntaxException.printStackTrace();
-                } });
+                String pattern = selectedPattern();
+                parent.execute(() -> loadPattern(pattern));
+            });
 
             // Home button listener - allows to go back to the main menu
             logbutton.addActionListener(e -> {
-                parent.killPauseHandler();
+                rateTimer.stop();
                 parent.setPause(true);
                 parent.resetGame();
                 switchPanel();
@@ -576,21 +722,21 @@ public class JeuDeLaVieUI extends JFrame implements Observer{
             // Zoom in button listener
             zIn.addActionListener(e -> {
                 parent.setZoom(parent.getZoom() + 0.25);
-                parent.actualise();
+                simPanel.repaint();
             });
 
             // Zoom out button listener
             zOut.addActionListener(e -> {
                 if (parent.getZoom() > 0.25) {
                     parent.setZoom(parent.getZoom() - 0.25);
-                    parent.actualise();
+                    simPanel.repaint();
                 }
             });
 
             // Zoom reset button listener
             zoom.addActionListener(e -> {
                 parent.setZoom(1);
-                parent.actualise();
+                simPanel.repaint();
             });
 
             // Tracks mouse movement in the simpanel
@@ -601,12 +747,15 @@ public class JeuDeLaVieUI extends JFrame implements Observer{
                 @Override
                 public void mouseClicked(MouseEvent e) {
                     cellsize = getCellSize();
-                    if (game.getCellXY(e.getX() / cellsize, e.getY() / cellsize).isAlive()) {
-                        game.getCellXY(e.getX() / cellsize, e.getY() / cellsize).die();
-                    } else {
-                        game.getCellXY(e.getX() / cellsize, e.getY() / cellsize).live();
-                    }
-                    parent.actualise();
+                    int x = e.getX() / cellsize, y = e.getY() / cellsize;
+                    parent.execute(() -> {
+                        if (game.getCellXY(x, y).isAlive()) {
+                            game.getCellXY(x, y).die();
+                        } else {
+                            game.getCellXY(x, y).live();
+                        }
+                        parent.actualise();
+                    });
                 }
 
                 @Override
@@ -630,6 +779,65 @@ public class JeuDeLaVieUI extends JFrame implements Observer{
                 }
             });
         }
+
+        /**
+         * Returns the pattern selected in the list of patterns. Called on the event dispatch thread.
+         * @return name of the pattern, or null for the first entry, which is a random grid.
+         */
+        String selectedPattern(){
+            return patterns.getSelectedIndex()==0 ? null : patterns.getItemAt(patterns.getSelectedIndex());
+        }
+
+        /**
+         * Loads a pattern, or a random grid, then publishes the grid to the renderer. Runs on the simulation thread.
+         * @param pattern name of the pattern, or null for a random grid.
+         */
+        void loadPattern(String pattern){
+            try {
+                if(pattern==null){
+                    parent.reset();
+                }else{
+                    game.loadPattern(pattern);
+                }
+                parent.actualise();
+            } catch (IOException ioException) {
+                ioException.printStackTrace();
+            }
+        }
+
+        /**
+         * Selects the ruleset applied by the game in the list of rulesets.
+         * A rule that is none of the rulesets, loaded from a snapshot, is added at the end of the list.
+         */
+        void selectRuleset(){
+            Rule rule = game.getVisitor()==null ? null : game.getRule();
+            while(ruleset.getItemCount()>3){
+                ruleset.removeItemAt(3);
+            }
+            if(Rule.CLASSIC.equals(rule)){
+                ruleset.setSelectedIndex(0);
+            }else if(Rule.DAYNIGHT.equals(rule)){
+                ruleset.setSelectedIndex(1);
+            }else if(rule==null || Rule.HIGHLIFE.equals(rule)){
+                ruleset.setSelectedIndex(2);
+            }else{
+                ruleset.addItem(rule.toString());
+                ruleset.setSelectedIndex(3);
+            }
+        }
+
+        /**
+         * Returns an icon flipped horizontally. Used to make the step back icon from the step one.
+         * @param icon the icon.
+         * @return the flipped icon.
+         */
+        private ImageIcon mirror(ImageIcon icon){
+            BufferedImage image=new BufferedImage(icon.getIconWidth(),icon.getIconHeight(),BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g=image.createGraphics();
+            g.drawImage(icon.getImage(),icon.getIconWidth(),0,-icon.getIconWidth(),icon.getIconHeight(),null);
+            g.dispose();
+            return new ImageIcon(image);
+        }
     }
 
     /**
@@ -719,31 +927,32 @@ public class JeuDeLaVieUI extends JFrame implements Observer{
             gbc.gridy=5;
             add(go,gbc);
 
-            //Go button action listener
+            //Go button action listener. The grid is made on the simulation thread, then the main panel is shown.
             go.addActionListener( e -> {
-
-                game.setDimensions(dimSlider.getValue());
-                game.setDensity((double)(denSlider.getValue()*0.01));
-                game.initializeGrid();
+                int dimension = dimSlider.getValue();
+                double density = (double)(denSlider.getValue()*0.01);
 
                 if(ruleset.getSelectedIndex()==0){
                     setCurrentVisitor(VisitorClassic.getInstance(game));
-                    game.setVisitor(currentVisitor);
-                    game.distributeVisitors();
                 }else if(ruleset.getSelectedIndex()==1){
                     setCurrentVisitor(VisitorDayNight.getInstance(game));
-                    game.setVisitor(currentVisitor);
-                    game.distributeVisitors();
                 }else{
                     setCurrentVisitor(VisitorHighLife.getInstance(game));
-                    game.setVisitor(currentVisitor);
-                    game.distributeVisitors();
                 }
-
-                parent.resetCellSize();
-                parent.createSimPanel();
-                parent.switchPanel();
-                parent.setPause(false);
+                Visitor visitor = currentVisitor;
+
+                parent.execute(() -> {
+                    game.setDimensions(dimension);
+                    game.setDensity(density);
+                    game.initializeGrid();
+                    game.setVisitor(visitor);
+                    SwingUtilities.invokeLater(() -> {
+                        parent.resetCellSize();
+                        parent.createSimPanel();
+                        parent.switchPanel();
+                        parent.setPause(false);
+                    });
+                });
 
                 try {
                     Thread.sleep(sleep);
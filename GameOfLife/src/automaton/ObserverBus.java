@@ -0,0 +1,192 @@
+package automaton;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers generations to observers on threads of its own, so that the simulation never waits for them.
+ * Every observer subscribes with a delivery policy. An observer never runs on two threads at once, and deliveries
+ * arriving while it runs are merged into a single one: observers read the latest state published with a generation
+ * when they run, so they see the latest generation anyway. A slow observer therefore receives fewer generations than its policy
+ * asks for, without delaying the others. The queue is bounded, and deliveries that do not fit are dropped.
+ * The threads are only created with the first delivery, so a game without subscribers costs nothing.
+ * @param subscriptions observers and their policies.
+ * @param executor threads running the observers, null until the first delivery.
+ * @param shutdown true once shutdown was called.
+ * @param dropped number of deliveries dropped because the queue was full.
+ * @param failed number of deliveries where the observer threw an exception.
+ */
+public class ObserverBus {
+    private static final int QUEUE=64;
+    private static final int THREADS=Math.max(2,Math.min(4,Runtime.getRuntime().availableProcessors()));
+
+    private final List<Subscription> subscriptions;
+    private ThreadPoolExecutor executor;
+    private boolean shutdown;
+    private final AtomicLong dropped,failed;
+
+    /**
+     * Constructor for ObserverBus.
+     */
+    public ObserverBus(){
+        subscriptions=new CopyOnWriteArrayList<>();
+        dropped=new AtomicLong();
+        failed=new AtomicLong();
+    }
+
+    /**
+     * Returns the threads running the observers, creating them if needed.
+     * @return the executor.
+     */
+    private synchronized ThreadPoolExecutor executor(){
+        if(executor==null){
+            executor=new ThreadPoolExecutor(THREADS,THREADS,0,TimeUnit.SECONDS,new ArrayBlockingQueue<>(QUEUE),r -> {
+                Thread t=new Thread(r,"Observers");
+                t.setDaemon(true);
+                return t;
+            });
+            if(shutdown){
+                executor.shutdownNow();
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Subscribes an observer. Does nothing if it is already subscribed.
+     * @param x the observer.
+     * @param policy decides which generations are delivered to it.
+     */
+    public synchronized void subscribe(Observer x, DeliveryPolicy policy){
+        for(Subscription s: subscriptions){
+            if(s.observer==x){
+                return;
+            }
+        }
+        subscriptions.add(new Subscription(x,policy));
+    }
+
+    /**
+     * Unsubscribes an observer.
+     * @param x the observer.
+     */
+    public synchronized void unsubscribe(Observer x){ subscriptions.removeIf(s -> s.observer==x); }
+
+    /**
+     * Delivers a generation to the observers whose policy accepts it. Returns at once.
+     * @param generation the generation.
+     */
+    public void publish(long generation){ publish(generation,null); }
+
+    /**
+     * Delivers a generation to the observers whose policy accepts it. Returns once the generation is prepared.
+     * @param generation the generation.
+     * @param prepare runs on the calling thread before the generation is delivered, and only if an observer accepts it.
+     *                Used to publish what the observers read while the caller goes on. Null if nothing is needed.
+     */
+    public synchronized void publish(long generation, Runnable prepare){
+        long now=System.nanoTime();
+        boolean prepared=prepare==null;
+        for(Subscription s: subscriptions){
+            if(s.policy.accepts(generation,now,s.lastGeneration,s.lastNanos)){
+                if(!prepared){
+                    prepare.run();
+                    prepared=true;
+                }
+                s.lastGeneration=generation;
+                s.lastNanos=now;
+                s.requested.set(true);
+                schedule(s);
+            }
+        }
+    }
+
+    /**
+     * Queues a subscription, unless it is already queued or running.
+     * @param s the subscription.
+     */
+    private void schedule(Subscription s){
+        if(s.scheduled.compareAndSet(false,true)){
+            try{
+                executor().execute(() -> deliver(s));
+            }catch(RejectedExecutionException e){
+                s.scheduled.set(false);
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Runs an observer once. If a delivery was requested while it ran, it is queued again behind the other observers.
+     * An observer that throws is reported and counted, and still receives the next generations.
+     * @param s the subscription of the observer.
+     */
+    private void deliver(Subscription s){
+        s.requested.set(false);
+        try{
+            s.observer.actualise();
+        }catch(RuntimeException e){
+            failed.incrementAndGet();
+            e.printStackTrace();
+        }finally{
+            s.scheduled.set(false);
+            if(s.requested.get()){
+                schedule(s);
+            }
+        }
+    }
+
+    /**
+     * Returns number of deliveries dropped because the queue was full.
+     * @return dropped delivery counter.
+     */
+    public long getDropped(){ return dropped.get(); }
+
+    /**
+     * Returns number of deliveries where the observer threw an exception.
+     * @return failed delivery counter.
+     */
+    public long getFailed(){ return failed.get(); }
+
+    /**
+     * Stops the threads running the observers. Nothing is delivered afterwards.
+     */
+    public synchronized void shutdown(){
+        shutdown=true;
+        if(executor!=null){
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * An observer, its policy and its last delivery.
+     * @param observer the observer.
+     * @param policy decides which generations are delivered.
+     * @param lastGeneration last generation delivered.
+     * @param lastNanos time of the last delivery.
+     * @param requested true if a delivery was requested and the observer did not run since.
+     * @param scheduled true if the observer is queued or running.
+     */
+    private static class Subscription {
+        final Observer observer;
+        final DeliveryPolicy policy;
+        long lastGeneration=Long.MIN_VALUE/2,lastNanos=Long.MIN_VALUE/2;
+        final AtomicBoolean requested=new AtomicBoolean(),scheduled=new AtomicBoolean();
+
+        /**
+         * Constructor for Subscription.
+         * @param observer the observer.
+         * @param policy decides which generations are delivered.
+         */
+        Subscription(Observer observer, DeliveryPolicy policy){
+            this.observer=observer;
+            this.policy=policy;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package automaton;
+
+import history.CycleDetector;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the simulation loop on its own thread.
+ * Generations are calculated in batches of generationsPerFrame, observers being notified once per batch,
+ * and batches are spaced so that the target rate is reached. Waiting is done with LockSupport.parkNanos
+ * up to a deadline, so the rate does not drift with the time taken by the generations themselves.
+ * With a rate of 0 the loop runs as fast as it can.
+ * Other threads change the game through execute, so that only the simulation thread touches the grid once it is started.
+ * @param game the game whose generations are calculated.
+ * @param rate target number of generations per second, 0 for no limit.
+ * @param generationsPerFrame number of generations calculated between two notifications of observers.
+ * @param paused true if the loop waits instead of calculating generations.
+ * @param stopOnCycle true if the loop pauses itself when the cycle detector of the game finds that the grid became still or periodic.
+ * @param achieved number of generations per second actually reached, measured about twice a second.
+ * @param tasks tasks waiting to run on the simulation thread between two batches.
+ * @param thread the simulation thread.
+ */
+public class SimulationScheduler {
+    private static final long MEASURE_NANOS=500_000_000L;
+
+    private final JeuDeLaVie game;
+    private volatile double rate;
+    private volatile int generationsPerFrame;
+    private volatile boolean paused;
+    private volatile boolean stopOnCycle;
+    private volatile double achieved;
+    private final Queue<Runnable> tasks;
+    private Thread thread;
+
+    /**
+     * Constructor for SimulationScheduler. The loop is paused and not started.
+     * @param game the game whose generations are calculated.
+     */
+    public SimulationScheduler(JeuDeLaVie game){
+        this.game=game;
+        tasks=new ConcurrentLinkedQueue<>();
+        rate=0;
+        generationsPerFrame=1;
+        paused=true;
+    }
+
+    /**
+     * Starts the simulation thread, if not started yet.
+     */
+    public synchronized void start(){
+        if(thread==null){
+            thread=new Thread(this::loop,"Simulation");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops the simulation thread. It can be started again.
+     */
+    public synchronized void stop(){
+        if(thread!=null){
+            thread.interrupt();
+            thread=null;
+        }
+    }
+
+    /**
+     * Setter for the target rate.
+     * @param generationsPerSecond target number of generations per second, 0 for no limit.
+     */
+    public void setRate(double generationsPerSecond){
+        rate=generationsPerSecond;
+        wake();
+    }
+
+    /**
+     * Getter for the target rate.
+     * @return target number of generations per second, 0 for no limit.
+     */
+    public double getRate(){ return rate; }
+
+    /**
+     * Setter for generationsPerFrame. Above 1, only one generation out of n is shown (hyper-step).
+     * @param n number of generations calculated between two notifications of observers.
+     */
+    public void setGenerationsPerFrame(int n){ generationsPerFrame=Math.max(1,n); }
+
+    /**
+     * Getter for generationsPerFrame.
+     * @return number of generations calculated between two notifications of observers.
+     */
+    public int getGenerationsPerFrame(){ return generationsPerFrame; }
+
+    /**
+     * Setter for paused.
+     * @param value true to pause the loop, false to resume it.
+     */
+    public void setPaused(boolean value){
+        paused=value;
+        wake();
+    }
+
+    /**
+     * Getter for paused.
+     * @return true if the loop is paused.
+     */
+    public boolean isPaused(){ return paused; }
+
+    /**
+     * Setter for stopOnCycle. Needs a cycle detector set on the game. Resuming a grid already in a cycle does not pause it again.
+     * @param value true to pause the loop when the grid becomes still or periodic.
+     */
+    public void setStopOnCycle(boolean value){ stopOnCycle=value; }
+
+    /**
+     * Getter for stopOnCycle.
+     * @return true if the loop pauses when the grid becomes still or periodic.
+     */
+    public boolean isStopOnCycle(){ return stopOnCycle; }
+
+    /**
+     * Returns the rate actually reached, 0 when paused.
+     * @return generations per second.
+     */
+    public double getAchievedRate(){ return achieved; }
+
+    /**
+     * Runs a task on the simulation thread between two batches, even when paused, so that it never runs during a generation.
+     * Returns at once. Runs the task on the calling thread if the simulation thread is not started.
+     * @param task the task, changing or reading the game.
+     */
+    public void execute(Runnable task){
+        synchronized(this){
+            if(thread!=null){
+                tasks.add(task);
+                LockSupport.unpark(thread);
+                return;
+            }
+        }
+        task.run();
+    }
+
+    /**
+     * Runs the tasks waiting for the simulation thread. A task that fails is reported and does not stop the others.
+     */
+    private void runTasks(){
+        Runnable task;
+        while((task=tasks.poll())!=null){
+            try{
+                task.run();
+            }catch(RuntimeException e){
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Wakes up the simulation thread, so that a change of settings is taken into account at once.
+     */
+    private synchronized void wake(){
+        if(thread!=null){
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Main loop of the simulation thread.
+     * The deadline of a batch is the start of the previous one plus the duration of a batch at the target rate,
+     * computed again after every wake up so that a new rate applies at once.
+     * If the loop is late by more than a batch, it starts again from now instead of calculating the late batches in a burst.
+     * Tasks given to execute run first at every turn of the loop.
+     * A task or a batch that fails is reported without stopping the thread, and a failed batch pauses the loop.
+     */
+    private void loop(){
+        long last=System.nanoTime(), measureStart=last, measured=0;
+        while(!Thread.currentThread().isInterrupted()){
+            runTasks();
+            if(paused){
+                achieved=0;
+                LockSupport.park(this);
+                last=measureStart=System.nanoTime();
+                measured=0;
+                continue;
+            }
+            int n=generationsPerFrame;
+            double r=rate;
+            if(r>0){
+                long period=(long)(n*1e9/r), deadline=last+period, now=System.nanoTime();
+                if(now<deadline){
+                    LockSupport.parkNanos(this,deadline-now);
+                    continue;
+                }
+                last=now-deadline>period ? now : deadline;
+            }
+
+            CycleDetector cycles=game.getCycleDetector();
+            boolean cycling=cycles!=null && cycles.isCycling();
+            try{
+                game.calculateNextGens(n);
+            }catch(RuntimeException e){
+                // The same failure would happen again at the next batch: the loop pauses and keeps running tasks
+                e.printStackTrace();
+                paused=true;
+                continue;
+            }
+            if(stopOnCycle && !cycling && cycles!=null && cycles.isCycling()){
+                paused=true;
+            }
+
+            measured+=n;
+            long now=System.nanoTime();
+            if(now-measureStart>=MEASURE_NANOS){
+                achieved=measured*1e9/(now-measureStart);
+                measureStart=now;
+                measured=0;
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package benchmarks;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Minimal benchmark harness. An operation is first warmed up, then measured during several iterations.
+ * Each iteration runs the operation enough times to last about iterationMillis.
+ * Allocation is measured on all threads, the same way as the GC profiler of JMH (bytes per operation).
+ * @param name name of the benchmark.
+ * @param cellsPerOp number of cells processed by one operation, used to report cells per second.
+ * @param operation the measured code.
+ */
+public class Benchmark {
+    private static final com.sun.management.ThreadMXBean THREADS=
+            (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+    private final String name;
+    private final long cellsPerOp;
+    private final Runnable operation;
+
+    /**
+     * Constructor for Benchmark.
+     * @param name name of the benchmark.
+     * @param cellsPerOp number of cells processed by one operation.
+     * @param operation the measured code.
+     */
+    public Benchmark(String name, long cellsPerOp, Runnable operation){
+        this.name=name;
+        this.cellsPerOp=cellsPerOp;
+        this.operation=operation;
+    }
+
+    /**
+     * Warms up then measures the operation.
+     * @param warmups number of warmup iterations.
+     * @param iterations number of measured iterations.
+     * @param iterationMillis approximate duration of an iteration.
+     * @return one line of results: mean operations and cells per second, bytes allocated per operation and best iteration.
+     */
+    public String run(int warmups, int iterations, long iterationMillis){
+        long target=iterationMillis*1_000_000L;
+        long ops=1;
+        for(int i=0; i<warmups; i++){
+            long time=time(ops);
+            ops=Math.max(1,ops*target/Math.max(1,time));
+        }
+
+        double total=0, best=Double.MAX_VALUE;
+        long bytes=allocated();
+        long count=0;
+        for(int i=0; i<iterations; i++){
+            double perOp=(double)time(ops)/ops;
+            total+=perOp;
+            best=Math.min(best,perOp);
+            count+=ops;
+        }
+        bytes=allocated()-bytes;
+
+        double nanos=total/iterations;
+        return String.format("%-48s %12.1f ops/s %12.2f Mcells/s %14.1f B/op   (best %.1f ops/s)",
+                name,1e9/nanos,cellsPerOp*1e3/nanos,(double)bytes/count,1e9/best);
+    }
+
+    /**
+     * Runs the operation a number of times.
+     * @param ops number of runs.
+     * @return elapsed time in nanoseconds.
+     */
+    private long time(long ops){
+        long start=System.nanoTime();
+        for(long i=0; i<ops; i++){
+            operation.run();
+        }
+        return System.nanoTime()-start;
+    }
+
+    /**
+     * Returns the number of bytes allocated so far by all living threads.
+     * @return allocated bytes.
+     */
+    private static long allocated(){
+        long sum=0;
+        for(long b: THREADS.getThreadAllocatedBytes(THREADS.getAllThreadIds())){
+            if(b>0){
+                sum+=b;
+            }
+        }
+        return sum;
+    }
+}
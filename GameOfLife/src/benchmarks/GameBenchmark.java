@@ -0,0 +1,196 @@
+package benchmarks;
+
+import automaton.JeuDeLaVie;
+import cells.Cell;
+import engines.Engine;
+import engines.Engines;
+import grids.GridBits;
+import visitors.Rule;
+import visitors.VisitorRule;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark suite of the game: calculation of generations with every engine and every rule, cell counters,
+ * random initialization, neighbour counting and pattern loading, for several grid sizes and densities.
+ * Results are given in operations and cells per second, with the number of bytes allocated per operation.
+ * Options are given as name=value, lists being separated with commas:
+ * sizes (100,1000,4096,16384), densities (0.1,0.5), rules (B3/S23,B36/S23,B3678/S34678), engines (all),
+ * filter (only benchmarks whose name contains it), warmups (3), iterations (5), millis (500 per iteration),
+ * slow (largest side of the grid for engines working cell by cell, 1024).
+ */
+public class GameBenchmark {
+    private final List<Integer> sizes=new ArrayList<>();
+    private final List<Double> densities=new ArrayList<>();
+    private final List<Rule> rules=new ArrayList<>();
+    private final List<String> engines=new ArrayList<>();
+    private String filter="";
+    private int warmups=3,iterations=5,slow=1024;
+    private long millis=500;
+
+    /**
+     * Runs the benchmarks selected by the options.
+     * @param args options, as name=value.
+     */
+    public static void main(String[] args){
+        GameBenchmark b=new GameBenchmark();
+        b.parse(args);
+        b.run();
+    }
+
+    /**
+     * Reads the options, then fills the lists that were not given.
+     * @param args options, as name=value.
+     */
+    private void parse(String[] args){
+        for(String arg: args){
+            int eq=arg.indexOf('=');
+            if(eq<0){
+                throw new IllegalArgumentException("Invalid option : "+arg);
+            }
+            String name=arg.substring(0,eq), value=arg.substring(eq+1);
+            switch(name){
+                case "sizes": for(String s: value.split(",")) sizes.add(Integer.parseInt(s)); break;
+                case "densities": for(String s: value.split(",")) densities.add(Double.parseDouble(s)); break;
+                case "rules": for(String s: value.split(",")) rules.add(Rule.parse(s)); break;
+                case "engines": for(String s: value.split(",")) engines.add(s); break;
+                case "filter": filter=value; break;
+                case "warmups": warmups=Integer.parseInt(value); break;
+                case "iterations": iterations=Integer.parseInt(value); break;
+                case "millis": millis=Long.parseLong(value); break;
+                case "slow": slow=Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Unknown option : "+name);
+            }
+        }
+        if(sizes.isEmpty()) sizes.addAll(List.of(100,1000,4096,16384));
+        if(densities.isEmpty()) densities.addAll(List.of(0.1,0.5));
+        if(rules.isEmpty()) rules.addAll(List.of(Rule.CLASSIC,Rule.HIGHLIFE,Rule.DAYNIGHT));
+        if(engines.isEmpty()){
+            engines.addAll(List.of(Engines.NAMES));
+            engines.add("hashlife");
+        }
+    }
+
+    /**
+     * Runs all benchmarks whose name contains the filter.
+     * Engines working cell by cell are only run on grids up to the slow size.
+     */
+    private void run(){
+        for(int size: sizes){
+            for(double density: densities){
+                for(Rule rule: rules){
+                    for(String engine: engines){
+                        if(!engine.equals("buffered") && !engine.equals("parallel") && !engine.startsWith("vector") && !engine.equals("bitsliced") && size>slow){
+                            continue;
+                        }
+                        if(rule.next(0)!=0 && (engine.equals("unbounded") || engine.equals("hashlife"))){
+                            continue;
+                        }
+                        String name="step/"+engine+"/"+rule+"/"+size+"/"+density;
+                        if(name.contains(filter)){
+                            step(name,engine,rule,size,density);
+                        }
+                    }
+                }
+                String name="count/"+size+"/"+density;
+                if(name.contains(filter)){
+                    JeuDeLaVie game=game(Rule.CLASSIC,size,density);
+                    System.out.println(new Benchmark(name,2L*size*size,() -> {
+                        game.livingCellCounter();
+                        game.deadCellCounter();
+                    }).run(warmups,iterations,millis));
+                }
+                name="initialize/"+size+"/"+density;
+                if(name.contains(filter)){
+                    JeuDeLaVie game=game(Rule.CLASSIC,size,density);
+                    long[] seed={0};
+                    System.out.println(new Benchmark(name,(long)size*size,() -> game.initializeGrid(seed[0]++)).run(warmups,iterations,millis));
+                }
+                name="neighbours/"+size+"/"+density;
+                if(size<=slow && name.contains(filter)){
+                    JeuDeLaVie game=game(Rule.CLASSIC,size,density);
+                    System.out.println(new Benchmark(name,(long)size*size,() -> {
+                        for(int y=0; y<size; y++){
+                            for(int x=0; x<size; x++){
+                                Cell c=game.getCellXY(x,y);
+                                c.livingNeighbours(game);
+                            }
+                        }
+                    }).run(warmups,iterations,millis));
+                }
+            }
+        }
+        loadPattern();
+    }
+
+    /**
+     * Creates a game with a random grid.
+     * @param rule rule of the visitor of the game.
+     * @param size number of cells on each axis.
+     * @param density density of living cells.
+     * @return the game.
+     */
+    private static JeuDeLaVie game(Rule rule, int size, double density){
+        JeuDeLaVie game=new JeuDeLaVie();
+        game.setGrid(new GridBits(size,size));
+        game.setDensity(density);
+        game.initializeGrid();
+        game.setVisitor(new VisitorRule(game,rule));
+        return game;
+    }
+
+    /**
+     * Benchmarks calculateNextGen with an engine, or advance by one generation for HashLife.
+     * @param name name of the benchmark.
+     * @param engine name of the engine.
+     * @param rule rule applied.
+     * @param size number of cells on each axis.
+     * @param density initial density of living cells.
+     */
+    private void step(String name, String engine, Rule rule, int size, double density){
+        JeuDeLaVie game=game(rule,size,density);
+        if(engine.equals("hashlife")){
+            game.advance(1);
+            System.out.println(new Benchmark(name,(long)size*size,() -> game.advance(1)).run(warmups,iterations,millis));
+            return;
+        }
+        Engine e=Engines.create(engine);
+        game.setEngine(e);
+        System.out.println(new Benchmark(name,(long)size*size,game::calculateNextGen).run(warmups,iterations,millis));
+        Engines.dispose(e);
+    }
+
+    /**
+     * Benchmarks loadPattern on every pattern of the resources whose name contains the filter.
+     * Printing is sent to a stream that discards it.
+     */
+    private void loadPattern(){
+        JeuDeLaVie game=new JeuDeLaVie();
+        game.setVisitor(new VisitorRule(game,Rule.CLASSIC));
+        PrintStream out=System.out;
+        for(char pattern='1'; pattern<='3'; pattern++){
+            char p=pattern;
+            if(!("loadPattern/"+p).contains(filter)){
+                continue;
+            }
+            Benchmark b=new Benchmark("loadPattern/"+p,(long)game.getXmax()*game.getYmax(),() -> {
+                try{
+                    game.loadPattern(p);
+                }catch(Exception ex){
+                    throw new IllegalStateException(ex);
+                }
+            });
+            String result;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            try{
+                result=b.run(warmups,iterations,millis);
+            }finally{
+                System.setOut(out);
+            }
+            System.out.println(result);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package benchmarks;
+
+import grids.GridBits;
+import grids.Topology;
+import visitors.Rule;
+
+import java.util.Random;
+
+/**
+ * Benchmark comparing the step of a GridBits in every topology.
+ * The same soup is calculated again and again, so that every run does exactly the same work.
+ * Wrapping only costs the refresh of the ghost cells, the time per generation should be the same for every topology.
+ */
+public class TopologyBenchmark {
+    private static final int SIZE=2048;
+    private static final int WARMUP=20;
+    private static final int ROUNDS=50;
+
+    /**
+     * Runs the benchmark and prints the time per generation of every topology.
+     * @param args unused.
+     */
+    public static void main(String[] args){
+        GridBits front=new GridBits(SIZE,SIZE), back=new GridBits(SIZE,SIZE);
+        Random random=new Random(42);
+        for(int y=0; y<SIZE; y++){
+            for(int x=0; x<SIZE; x++){
+                if(random.nextBoolean()){
+                    front.live(x,y);
+                }
+            }
+        }
+
+        for(Topology t: Topology.values()){
+            for(int i=0; i<WARMUP; i++){
+                step(front,back,t);
+            }
+            long start=System.nanoTime();
+            for(int i=0; i<ROUNDS; i++){
+                step(front,back,t);
+            }
+            double ms=(System.nanoTime()-start)/1e6/ROUNDS;
+            System.out.printf("%-6s %8.3f ms/generation %8.1f Mcells/s%n",t,ms,(double)SIZE*SIZE/ms/1e3);
+        }
+    }
+
+    /**
+     * Calculates one generation with given topology.
+     */
+    private static void step(GridBits front, GridBits back, Topology t){
+        front.refreshGhosts(t);
+        front.step(back,Rule.CLASSIC);
+        front.clearGhosts();
+    }
+}
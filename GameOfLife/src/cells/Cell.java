@@ -43,7 +43,7 @@ public class Cell {
     }
 
     /**
-     * Checks how many living neighbours does the cell have.
+     * Checks how many living neighbours does the cell have. Neighbours outside of the grid depend on its topology.
      * @param grid the grid in which the cell is placed.
      * @return number of living cells around current one.
      */
@@ -52,10 +52,8 @@ public class Cell {
         for(int i=-1; i<=1; i++){
             for(int j=-1; j<=1; j++){
                 if( i!=0 || j != 0){
-                    if((x+i)>=0 && (x+i) < grid.getXmax() && (y+j) >=0 && (y+j) < grid.getYmax()){
-                        if(grid.getCellXY(x+i,y+j).isAlive()) {
-                            counter++;
-                        }
+                    if(grid.getTopology().isAlive(grid.getGrid(),x+i,y+j)) {
+                        counter++;
                     }
                 }
             }
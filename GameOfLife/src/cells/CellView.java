@@ -0,0 +1,78 @@
+package cells;
+
+import grids.Grid;
+import visitors.Visitor;
+
+/**
+ * Cell that does not hold its own state. The state is read from and written to a grid,
+ * which allows grids that do not store Cell objects (such as GridBits) to be used with visitors and commands.
+ * @param grid the grid that holds the state of the cell.
+ * @param onWrite run after every change made through this cell, null if nothing has to know.
+ */
+public class CellView extends Cell {
+    private final Grid grid;
+    private final Runnable onWrite;
+
+    /**
+     * Constructor for CellView.
+     * @param x its X coordinate.
+     * @param y its Y coordinate.
+     * @param grid the grid that holds its state.
+     */
+    public CellView(int x, int y, Grid grid){ this(x,y,grid,null); }
+
+    /**
+     * Constructor for CellView, telling someone when the cell is changed through it.
+     * @param x its X coordinate.
+     * @param y its Y coordinate.
+     * @param grid the grid that holds its state.
+     * @param onWrite run after every call to live or die, null if nothing has to know.
+     */
+    public CellView(int x, int y, Grid grid, Runnable onWrite){
+        super(x,y,null);
+        this.grid=grid;
+        this.onWrite=onWrite;
+    }
+
+    /**
+     * Resurrects this cell in the grid.
+     */
+    @Override
+    public void live(){
+        grid.live(x,y);
+        if(onWrite!=null){
+            onWrite.run();
+        }
+    }
+
+    /**
+     * Kills this cell in the grid.
+     */
+    @Override
+    public void die(){
+        grid.die(x,y);
+        if(onWrite!=null){
+            onWrite.run();
+        }
+    }
+
+    /**
+     * Checks in the grid if cell is alive.
+     * @return true if alive, false if not.
+     */
+    @Override
+    public boolean isAlive(){ return grid.isAlive(x,y); }
+
+    /**
+     * Attaches the visitor to the current state of the cell.
+     * @param v visitor that will be attached.
+     */
+    @Override
+    public void accept(Visitor v){
+        if(isAlive()){
+            StateAlive.getInstance().accept(v,this);
+        }else{
+            StateDead.getInstance().accept(v,this);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package engines;
+
+/**
+ * Calculation of generations on cells stored one per byte, used by EngineVector.
+ * A row of width cells starting at index row is stored from row+1 to row+width, with a ghost cell on each side.
+ * Every row is followed by at least 64 more bytes, so that whole vectors can be read past the last cell.
+ */
+interface CellKernel {
+
+    /**
+     * Writes 64 cells per word as one byte per cell, 0 or 1.
+     * @param words the cells, bit k of word w being cell 64*w+k.
+     * @param count number of words.
+     * @param cells array receiving the cells.
+     * @param offset index in cells of the first cell.
+     */
+    public void unpack(long[] words, int count, byte[] cells, int offset);
+
+    /**
+     * Calculates next state of a row: sums of the three rows are added first, column by column,
+     * then the sums of three neighbour columns, minus the cell itself, give the number of neighbours of every cell.
+     * @param cells the rows, ghost cells included.
+     * @param above index in cells of the row above.
+     * @param row index in cells of the row.
+     * @param below index in cells of the row under.
+     * @param width number of cells of a row.
+     * @param sums buffer of 64 bytes more than the words of the row receiving the column sums.
+     * @param birth bit n set if a dead cell with n neighbours is born.
+     * @param survival bit n set if a living cell with n neighbours survives.
+     * @param out receives next state of the row, 64 cells per word. Bits after the last cell are undefined.
+     */
+    public void step(byte[] cells, int above, int row, int below, int width, byte[] sums, int birth, int survival, long[] out);
+
+    /**
+     * Tells how the kernel works, for benchmarks and logs.
+     * @return description of the kernel.
+     */
+    public String describe();
+}
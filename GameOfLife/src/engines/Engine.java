@@ -0,0 +1,22 @@
+package engines;
+
+import automaton.JeuDeLaVie;
+
+/**
+ * Interface Engine used for implementing design pattern Strategy.
+ * Represents the way JeuDeLaVie calculates its next generation.
+ */
+public interface Engine {
+
+    /**
+     * Calculates next generation of the game without making it visible yet.
+     * @param game the game whose next generation is calculated.
+     */
+    public void compute(JeuDeLaVie game);
+
+    /**
+     * Makes the generation calculated by compute the current one.
+     * @param game the game whose next generation is applied.
+     */
+    public void apply(JeuDeLaVie game);
+}
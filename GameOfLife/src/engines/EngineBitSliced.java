@@ -0,0 +1,25 @@
+package engines;
+
+import grids.GridBits;
+import visitors.Rule;
+
+/**
+ * Implementation of Engine. Works as EngineBuffered, tile by tile on a GridBits, but every word of 64 cells
+ * is calculated with bit-sliced adders and boolean logic instead of one table lookup per cell.
+ * Any rule is supported, the logic being built from its birth and survival masks.
+ * Needs a GridBits, other grids are calculated with visitors and commands.
+ */
+public class EngineBitSliced extends EngineBuffered {
+
+    /**
+     * Calculates next generation of a tile with bit-sliced adders.
+     * @param front grid holding current generation.
+     * @param back grid receiving next generation.
+     * @param rule the rule to apply.
+     * @param tx column of the tile.
+     * @param ty row of the tile.
+     * @return births and deaths of the tile, packed as by GridBits.step.
+     */
+    @Override
+    protected long step(GridBits front, GridBits back, Rule rule, int tx, int ty){ return front.stepSliced(back,rule,tx,ty); }
+}
@@ -0,0 +1,73 @@
+package engines;
+
+import automaton.JeuDeLaVie;
+import grids.GridBits;
+import grids.TileTracker;
+import visitors.Rule;
+
+/**
+ * Implementation of Engine. Reads current generation from the front grid and writes the next one
+ * in the back grid, then swaps them. Nothing is allocated while stepping.
+ * Only the tiles marked as active by the TileTracker of the game are calculated.
+ * Edges are wrapped with ghost cells according to the topology of the game, so the kernel has no special case.
+ * Births and deaths are counted by the kernel and given to the game, which never has to count its cells.
+ * Needs a GridBits, other grids are calculated with visitors and commands.
+ */
+public class EngineBuffered implements Engine {
+
+    /**
+     * Calculates next generation of active tiles in the back grid.
+     * @param game the game whose next generation is calculated.
+     */
+    @Override
+    public void compute(JeuDeLaVie game){
+        if(game.getGrid() instanceof GridBits front){
+            GridBits back=(GridBits)game.getBackGrid();
+            Rule rule=game.getRule();
+            TileTracker tiles=game.getTileTracker();
+            front.refreshGhosts(game.getTopology());
+            tiles.prepare(front,back,game.getTopology());
+            long changes=0L;
+            for(int ty=0; ty<tiles.getTilesY(); ty++){
+                for(int tx=0; tx<tiles.getTilesX(); tx++){
+                    if(tiles.isActive(tx,ty)){
+                        long c=step(front,back,rule,tx,ty);
+                        if(c!=0L){
+                            tiles.setChanged(tx,ty);
+                            changes+=c;
+                        }
+                    }
+                }
+            }
+            front.clearGhosts();
+            front.commit(back,changes);
+            game.countChanges(GridBits.births(changes),GridBits.deaths(changes));
+        }else{
+            game.distributeVisitors();
+        }
+    }
+
+    /**
+     * Calculates next generation of a tile with the table of the rule.
+     * @param front grid holding current generation.
+     * @param back grid receiving next generation.
+     * @param rule the rule to apply.
+     * @param tx column of the tile.
+     * @param ty row of the tile.
+     * @return births and deaths of the tile, packed as by GridBits.step.
+     */
+    protected long step(GridBits front, GridBits back, Rule rule, int tx, int ty){ return front.step(back,rule,tx,ty); }
+
+    /**
+     * Swaps front and back grids.
+     * @param game the game whose next generation is applied.
+     */
+    @Override
+    public void apply(JeuDeLaVie game){
+        if(game.getGrid() instanceof GridBits){
+            game.swapGrids();
+        }else{
+            game.executeCommands();
+        }
+    }
+}
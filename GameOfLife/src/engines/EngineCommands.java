@@ -0,0 +1,24 @@
+package engines;
+
+import automaton.JeuDeLaVie;
+
+/**
+ * Implementation of Engine. Distributes the visitor to every cell, then executes the commands it created.
+ * This is the original way of calculating generations and is kept as the reference.
+ */
+public class EngineCommands implements Engine {
+
+    /**
+     * Visitor visits every cell and adds a command for every cell that changes.
+     * @param game the game whose next generation is calculated.
+     */
+    @Override
+    public void compute(JeuDeLaVie game){ game.distributeVisitors(); }
+
+    /**
+     * Executes the commands.
+     * @param game the game whose next generation is applied.
+     */
+    @Override
+    public void apply(JeuDeLaVie game){ game.executeCommands(); }
+}
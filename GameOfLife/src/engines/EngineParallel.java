@@ -0,0 +1,143 @@
+package engines;
+
+import automaton.JeuDeLaVie;
+import grids.GridBits;
+import grids.TileTracker;
+import visitors.Rule;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Implementation of Engine. Same as EngineBuffered, but the grid is split in bands of rows of tiles
+ * that are calculated at the same time by a ForkJoinPool.
+ * Each band reads the halo rows above and under it straight from the front grid, which is not modified
+ * during the step, so bands never wait for each other and the result is identical to EngineBuffered.
+ * @param pool pool of threads calculating the bands.
+ * @param parallelism number of threads of the pool.
+ */
+public class EngineParallel implements Engine {
+    private final ForkJoinPool pool;
+    private final int parallelism;
+
+    /**
+     * Constructor for EngineParallel. Uses one thread per available processor.
+     */
+    public EngineParallel(){ this(Runtime.getRuntime().availableProcessors()); }
+
+    /**
+     * Constructor for EngineParallel.
+     * @param parallelism number of threads calculating the bands.
+     */
+    public EngineParallel(int parallelism){
+        this.parallelism=parallelism;
+        pool=new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Getter for parallelism.
+     * @return number of threads calculating the bands.
+     */
+    public int getParallelism(){ return parallelism; }
+
+    /**
+     * Stops the threads of the pool. The engine cannot be used afterwards.
+     */
+    public void shutdown(){ pool.shutdown(); }
+
+    /**
+     * Calculates next generation in the back grid, band by band.
+     * @param game the game whose next generation is calculated.
+     */
+    @Override
+    public void compute(JeuDeLaVie game){
+        if(game.getGrid() instanceof GridBits front){
+            GridBits back=(GridBits)game.getBackGrid();
+            TileTracker tiles=game.getTileTracker();
+            front.refreshGhosts(game.getTopology());
+            tiles.prepare(front,back,game.getTopology());
+            int rows=Math.max(1,tiles.getTilesY()/(parallelism*4));
+            long changes=pool.invoke(new Band(front,back,game.getRule(),tiles,0,tiles.getTilesY(),rows));
+            front.clearGhosts();
+            front.commit(back,changes);
+            game.countChanges(GridBits.births(changes),GridBits.deaths(changes));
+        }else{
+            game.distributeVisitors();
+        }
+    }
+
+    /**
+     * Swaps front and back grids.
+     * @param game the game whose next generation is applied.
+     */
+    @Override
+    public void apply(JeuDeLaVie game){
+        if(game.getGrid() instanceof GridBits){
+            game.swapGrids();
+        }else{
+            game.executeCommands();
+        }
+    }
+
+    /**
+     * Task calculating the active tiles of a band of rows of tiles. Splits itself in two until bands are small enough.
+     * Returns the births and deaths of the band, packed as by GridBits.step.
+     */
+    private static class Band extends RecursiveTask<Long> {
+        private static final long serialVersionUID=1L;
+
+        private final GridBits front,back;
+        private final Rule rule;
+        private final TileTracker tiles;
+        private final int from,to,rows;
+
+        /**
+         * Constructor for Band.
+         * @param front grid holding current generation.
+         * @param back grid receiving next generation.
+         * @param rule the rule to apply.
+         * @param tiles tracker telling which tiles are active.
+         * @param from first row of tiles of the band.
+         * @param to row of tiles after the last row of the band.
+         * @param rows maximal number of rows of tiles calculated without splitting.
+         */
+        Band(GridBits front, GridBits back, Rule rule, TileTracker tiles, int from, int to, int rows){
+            this.front=front;
+            this.back=back;
+            this.rule=rule;
+            this.tiles=tiles;
+            this.from=from;
+            this.to=to;
+            this.rows=rows;
+        }
+
+        /**
+         * Calculates the band or splits it.
+         * @return births and deaths of the band.
+         */
+        @Override
+        protected Long compute(){
+            if(to-from<=rows){
+                long changes=0L;
+                for(int ty=from; ty<to; ty++){
+                    for(int tx=0; tx<tiles.getTilesX(); tx++){
+                        if(tiles.isActive(tx,ty)){
+                            long c=front.step(back,rule,tx,ty);
+                            if(c!=0L){
+                                tiles.setChanged(tx,ty);
+                                changes+=c;
+                            }
+                        }
+                    }
+                }
+                return changes;
+            }else{
+                int middle=(from+to)>>>1;
+                Band upper=new Band(front,back,rule,tiles,from,middle,rows);
+                upper.fork();
+                long lower=new Band(front,back,rule,tiles,middle,to,rows).compute();
+                return upper.join()+lower;
+            }
+        }
+    }
+}
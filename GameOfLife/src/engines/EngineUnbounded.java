@@ -0,0 +1,73 @@
+package engines;
+
+import automaton.JeuDeLaVie;
+import grids.Grid;
+import grids.GridBits;
+import grids.Universe;
+
+/**
+ * Implementation of Engine. Cells live in an unbounded Universe instead of the grid,
+ * and the grid only shows a window of it, so patterns leaving the grid keep evolving and may come back.
+ * Cells modified in the grid between two generations are copied back into the universe.
+ * Births and deaths given to the game are those of the whole universe, not only of the window.
+ * @param universe the unbounded universe.
+ * @param left X coordinate of the universe shown on the first column of the grid.
+ * @param top Y coordinate of the universe shown on the first row of the grid.
+ * @param exported grid into which the window was last copied.
+ * @param modifications modifications of the exported grid right after the copy.
+ */
+public class EngineUnbounded implements Engine {
+    private final Universe universe;
+    private int left,top;
+    private Grid exported;
+    private long modifications;
+
+    /**
+     * Constructor for EngineUnbounded. The window shows the universe from coordinates (0,0).
+     */
+    public EngineUnbounded(){ universe=new Universe(); }
+
+    /**
+     * Getter for universe.
+     * @return the unbounded universe.
+     */
+    public Universe getUniverse(){ return universe; }
+
+    /**
+     * Moves the window shown in the grid. Takes effect at the next generation.
+     * @param left X coordinate of the universe shown on the first column of the grid.
+     * @param top Y coordinate of the universe shown on the first row of the grid.
+     */
+    public void setWindow(int left, int top){
+        this.left=left;
+        this.top=top;
+    }
+
+    /**
+     * Copies the grid into the universe if it was modified, then calculates next generation of the universe.
+     * @param game the game whose next generation is calculated.
+     */
+    @Override
+    public void compute(JeuDeLaVie game){
+        Grid g=game.getGrid();
+        if(g!=exported || !(g instanceof GridBits bits) || bits.getModifications()!=modifications){
+            universe.importWindow(g,left,top);
+        }
+        universe.step(game.getRule());
+        game.countChanges(universe.getBirths(),universe.getDeaths());
+    }
+
+    /**
+     * Copies the window of the universe into the grid.
+     * @param game the game whose next generation is applied.
+     */
+    @Override
+    public void apply(JeuDeLaVie game){
+        Grid g=game.getGrid();
+        universe.exportWindow(g,left,top);
+        exported=g;
+        if(g instanceof GridBits bits){
+            modifications=bits.getModifications();
+        }
+    }
+}
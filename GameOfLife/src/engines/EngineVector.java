@@ -0,0 +1,164 @@
+package engines;
+
+import automaton.JeuDeLaVie;
+import grids.GridBits;
+import grids.Topology;
+import visitors.Rule;
+
+/**
+ * Implementation of Engine. Copies rows of the grid into one byte per cell, so that neighbours of many cells can be
+ * counted at once with SIMD instructions, then writes the next generation into the back grid and swaps them.
+ * Rows are added with the Vector API when the jdk.incubator.vector module is available (java --add-modules jdk.incubator.vector),
+ * and one cell at a time otherwise: the vector kernel is loaded by reflection, so the game runs without the module.
+ * Only three rows are unpacked at a time, in a window that slides down the grid, whatever its size.
+ * Every tile is calculated, ghost cells are filled with Topology.isAlive.
+ * Needs a GridBits, other grids are calculated with visitors and commands.
+ * @param kernel the kernel counting neighbours, vector or scalar.
+ * @param window three rows of cells, one byte per cell, with a ghost cell on each side.
+ * @param sums column sums of the row being calculated.
+ * @param row words of a row of the current generation.
+ * @param next words of a row of the next generation.
+ * @param pitch number of bytes of a row of the window.
+ */
+public class EngineVector implements Engine {
+    private final CellKernel kernel;
+    private byte[] window,sums;
+    private long[] row,next;
+    private int pitch;
+
+    /**
+     * Constructor for EngineVector. Uses the vector kernel if the Vector API is available.
+     */
+    public EngineVector(){ this(true); }
+
+    /**
+     * Constructor for EngineVector.
+     * @param vectorized true to use the vector kernel if the Vector API is available, false to always count one cell at a time.
+     */
+    public EngineVector(boolean vectorized){ kernel=vectorized ? loadKernel() : new ScalarKernel(); }
+
+    /**
+     * Loads the vector kernel, or the scalar one if the jdk.incubator.vector module is missing.
+     * @return the kernel.
+     */
+    private static CellKernel loadKernel(){
+        try{
+            return (CellKernel)Class.forName("engines.VectorKernel").getDeclaredConstructor().newInstance();
+        }catch(ReflectiveOperationException | LinkageError e){
+            return new ScalarKernel();
+        }
+    }
+
+    /**
+     * Tells which kernel is used.
+     * @return description of the kernel.
+     */
+    public String getKernel(){ return kernel.describe(); }
+
+    /**
+     * Calculates next generation in the back grid. Row y is kept in the window at slot (y+1)%3,
+     * ghost rows being -1 and height.
+     * @param game the game whose next generation is calculated.
+     */
+    @Override
+    public void compute(JeuDeLaVie game){
+        if(game.getGrid() instanceof GridBits front){
+            GridBits back=(GridBits)game.getBackGrid();
+            Rule rule=game.getRule();
+            Topology topology=game.getTopology();
+            int width=front.getWidth(), height=front.getHeight(), words=front.getTilesX();
+            if(width==0 || height==0){
+                return;
+            }
+            allocate(words);
+            load(front,topology,-1);
+            load(front,topology,0);
+
+            long births=0, deaths=0;
+            long mask=(width&63)==0 ? -1L : (1L<<(width&63))-1;
+            for(int y=0; y<height; y++){
+                load(front,topology,y+1);
+                kernel.step(window,slot(y-1),slot(y),slot(y+1),width,sums,rule.getBirthMask(),rule.getSurvivalMask(),next);
+                next[words-1]&=mask;
+                front.getRow(y,row);
+                for(int w=0; w<words; w++){
+                    births+=Long.bitCount(next[w]&~row[w]);
+                    deaths+=Long.bitCount(row[w]&~next[w]);
+                }
+                back.setRow(y,next);
+            }
+            game.countChanges(births,deaths);
+        }else{
+            game.distributeVisitors();
+        }
+    }
+
+    /**
+     * Swaps front and back grids.
+     * @param game the game whose next generation is applied.
+     */
+    @Override
+    public void apply(JeuDeLaVie game){
+        if(game.getGrid() instanceof GridBits){
+            game.swapGrids();
+        }else{
+            game.executeCommands();
+        }
+    }
+
+    /**
+     * Creates the buffers if the width of the grid changed. A row takes a whole number of words and one more
+     * word of margin, so that vectors read after the last cell stay inside the row.
+     * @param words number of words of a row.
+     */
+    private void allocate(int words){
+        int p=(words<<6)+64;
+        if(window==null || p!=pitch){
+            pitch=p;
+            window=new byte[3*pitch];
+            sums=new byte[pitch];
+            row=new long[words];
+            next=new long[words];
+        }
+    }
+
+    /**
+     * Returns the index in the window of a row.
+     * @param y coordinate on Y axis, between -1 and the height of the grid.
+     * @return index of the ghost cell on the left of the row.
+     */
+    private int slot(int y){ return (y+1)%3*pitch; }
+
+    /**
+     * Unpacks a row into the window with its ghost cells. Ghost rows above and under the grid are read cell by cell
+     * according to the topology.
+     * @param grid the grid.
+     * @param topology the topology of the grid.
+     * @param y coordinate on Y axis, between -1 and the height of the grid.
+     */
+    private void load(GridBits grid, Topology topology, int y){
+        int width=grid.getWidth(), start=slot(y);
+        if(y<0 || y>=grid.getHeight()){
+            for(int x=-1; x<=width; x++){
+                window[start+1+x]=ghost(grid,topology,x,y);
+            }
+            return;
+        }
+        grid.getRow(y,row);
+        kernel.unpack(row,grid.getTilesX(),window,start+1);
+        window[start]=ghost(grid,topology,-1,y);
+        window[start+1+width]=ghost(grid,topology,width,y);
+    }
+
+    /**
+     * Returns a ghost cell.
+     * @param grid the grid.
+     * @param topology the topology of the grid.
+     * @param x coordinate on X axis, between -1 and the width of the grid.
+     * @param y coordinate on Y axis, between -1 and the height of the grid.
+     * @return 1 if alive, 0 if not.
+     */
+    private static byte ghost(GridBits grid, Topology topology, int x, int y){
+        return topology.isAlive(grid,x,y) ? (byte)1 : (byte)0;
+    }
+}
@@ -0,0 +1,44 @@
+package engines;
+
+/**
+ * Creates engines from their names, for settings given as text (command line, benchmarks).
+ */
+public class Engines {
+    /**
+     * Names of all engines, in the order they were written.
+     */
+    public static final String[] NAMES={"commands","buffered","parallel","unbounded","vector","vector-scalar","bitsliced"};
+
+    /**
+     * Creates an engine.
+     * @param name name of the engine, one of NAMES.
+     * @return a new engine.
+     */
+    public static Engine create(String name){
+        switch(name){
+            case "commands": return new EngineCommands();
+            case "buffered": return new EngineBuffered();
+            case "parallel": return new EngineParallel();
+            case "unbounded": return new EngineUnbounded();
+            case "vector": return new EngineVector();
+            case "vector-scalar": return new EngineVector(false);
+            case "bitsliced": return new EngineBitSliced();
+            default: throw new IllegalArgumentException("Unknown engine : "+name);
+        }
+    }
+
+    /**
+     * Releases the threads an engine may hold.
+     * @param e the engine, which cannot be used afterwards.
+     */
+    public static void dispose(Engine e){
+        if(e instanceof EngineParallel p){
+            p.shutdown();
+        }
+    }
+
+    /**
+     * Private constructor, the class only has static methods.
+     */
+    private Engines(){}
+}
@@ -0,0 +1,96 @@
+package engines;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * CellKernel working one cell at a time. Used when the Vector API is not available.
+ * The next state of a cell is looked up in a table indexed by its number of neighbours, plus 16 if it is alive.
+ * Words are unpacked 8 cells at a time: every byte of a word is spread into 8 bytes by a table, written as one long.
+ * @param SPREAD for every byte value, a long whose byte i is bit i of the value.
+ * @param LONGS view of a byte array as little-endian longs.
+ * @param table next state of a dead cell with n neighbours at index n, of a living one at index 16+n.
+ * @param birth birth mask the table was built for.
+ * @param survival survival mask the table was built for.
+ */
+class ScalarKernel implements CellKernel {
+    private static final long[] SPREAD=new long[256];
+    private static final VarHandle LONGS=MethodHandles.byteArrayViewVarHandle(long[].class,ByteOrder.LITTLE_ENDIAN);
+
+    static{
+        for(int b=0; b<256; b++){
+            for(int i=0; i<8; i++){
+                SPREAD[b]|=(long)(b>>>i&1)<<(i<<3);
+            }
+        }
+    }
+
+    private final byte[] table=new byte[32];
+    private int birth=-1,survival=-1;
+
+    /**
+     * Writes 64 cells per word as one byte per cell, 8 cells at a time.
+     */
+    @Override
+    public void unpack(long[] words, int count, byte[] cells, int offset){
+        for(int w=0; w<count; w++){
+            long word=words[w];
+            int base=offset+(w<<6);
+            for(int i=0; i<8; i++){
+                LONGS.set(cells,base+(i<<3),SPREAD[(int)(word>>>(i<<3))&0xFF]);
+            }
+        }
+    }
+
+    /**
+     * Packs 64 cells stored one per byte, 0 or 1, into a word. Every 8 bytes read as a long are gathered
+     * into their top byte by a multiplication: byte i moves to bit 56+i and no other product reaches these bits.
+     * @param cells the cells.
+     * @param offset index in cells of the first cell.
+     * @return the word.
+     */
+    static long pack(byte[] cells, int offset){
+        long word=0L;
+        for(int i=0; i<8; i++){
+            long bytes=(long)LONGS.get(cells,offset+(i<<3));
+            word|=(bytes*0x0102040810204080L>>>56)<<(i<<3);
+        }
+        return word;
+    }
+
+    /**
+     * Calculates next state of a row, one cell at a time.
+     */
+    @Override
+    public void step(byte[] cells, int above, int row, int below, int width, byte[] sums, int birth, int survival, long[] out){
+        if(birth!=this.birth || survival!=this.survival){
+            for(int n=0; n<16; n++){
+                table[n]=(byte)(birth>>>n&1);
+                table[16+n]=(byte)(survival>>>n&1);
+            }
+            this.birth=birth;
+            this.survival=survival;
+        }
+        for(int i=0; i<width+2; i++){
+            sums[i]=(byte)(cells[above+i]+cells[row+i]+cells[below+i]);
+        }
+        for(int w=0; w<(width+63)>>>6; w++){
+            long word=0L;
+            int x0=w<<6, end=Math.min(64,width-x0);
+            for(int b=0; b<end; b++){
+                int x=x0+b, alive=cells[row+1+x];
+                int n=sums[x]+sums[x+1]+sums[x+2]-alive;
+                word|=(long)table[alive<<4|n]<<b;
+            }
+            out[w]=word;
+        }
+    }
+
+    /**
+     * Describes the kernel.
+     * @return "scalar".
+     */
+    @Override
+    public String describe(){ return "scalar"; }
+}
@@ -0,0 +1,84 @@
+package engines;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * CellKernel working on whole vectors of cells with the Vector API (jdk.incubator.vector).
+ * Neighbour counts of a vector of cells are three additions of rows and three additions of shifted column sums.
+ * The rule is applied by looking up every count in two vectors holding the birth and survival masks, one lane per count,
+ * and choosing between both by the state of the cell. The resulting bytes are packed into words as the scalar kernel does,
+ * which allocates nothing: on JDK 16 and 17, turning a vector mask into a long boxes the mask.
+ * Only loaded by EngineVector when the module is available (--add-modules jdk.incubator.vector),
+ * this class is the only one of the game that needs it.
+ * @param SPECIES vector shape, the preferred one of the processor between 16 and 64 lanes, so that any count is a lane
+ *                and a word holds whole vectors.
+ * @param next next state of the row being calculated, one byte per cell.
+ * @param born lane n is 1 if a dead cell with n neighbours is born.
+ * @param survives lane n is 1 if a living cell with n neighbours survives.
+ * @param birth birth mask born was built for.
+ * @param survival survival mask survives was built for.
+ */
+class VectorKernel extends ScalarKernel {
+    private static final VectorSpecies<Byte> SPECIES=ByteVector.SPECIES_PREFERRED.length()<16 ? ByteVector.SPECIES_128
+            : ByteVector.SPECIES_PREFERRED.length()>64 ? ByteVector.SPECIES_512 : ByteVector.SPECIES_PREFERRED;
+
+    private byte[] next=new byte[0];
+    private ByteVector born,survives;
+    private int birth=-1,survival=-1;
+
+    /**
+     * Calculates next state of a row, a vector of cells at a time.
+     */
+    @Override
+    public void step(byte[] cells, int above, int row, int below, int width, byte[] sums, int birth, int survival, long[] out){
+        if(birth!=this.birth || survival!=this.survival){
+            born=lanes(birth);
+            survives=lanes(survival);
+            this.birth=birth;
+            this.survival=survival;
+        }
+        if(next.length<sums.length){
+            next=new byte[sums.length];
+        }
+        int lanes=SPECIES.length();
+        for(int i=0; i<width+2; i+=lanes){
+            ByteVector.fromArray(SPECIES,cells,above+i)
+                    .add(ByteVector.fromArray(SPECIES,cells,row+i))
+                    .add(ByteVector.fromArray(SPECIES,cells,below+i))
+                    .intoArray(sums,i);
+        }
+        for(int x=0; x<width; x+=lanes){
+            ByteVector cell=ByteVector.fromArray(SPECIES,cells,row+1+x);
+            ByteVector count=ByteVector.fromArray(SPECIES,sums,x)
+                    .add(ByteVector.fromArray(SPECIES,sums,x+1))
+                    .add(ByteVector.fromArray(SPECIES,sums,x+2))
+                    .sub(cell);
+            count.selectFrom(born).blend(count.selectFrom(survives),cell.compare(VectorOperators.NE,(byte)0)).intoArray(next,x);
+        }
+        for(int w=0; w<(width+63)>>>6; w++){
+            out[w]=pack(next,w<<6);
+        }
+    }
+
+    /**
+     * Spreads a rule mask over the lanes of a vector.
+     * @param mask bit n set for every number of neighbours n.
+     * @return vector whose lane n is bit n of the mask.
+     */
+    private static ByteVector lanes(int mask){
+        byte[] lanes=new byte[SPECIES.length()];
+        for(int n=0; n<=8; n++){
+            lanes[n]=(byte)(mask>>>n&1);
+        }
+        return ByteVector.fromArray(SPECIES,lanes,0);
+    }
+
+    /**
+     * Describes the kernel.
+     * @return the vector shape used.
+     */
+    @Override
+    public String describe(){ return "vector "+SPECIES.vectorBitSize()+" bits"; }
+}
@@ -0,0 +1,228 @@
+package ensemble;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Results of the simulations of an ensemble, in the order of their specs, with statistics over all of them.
+ * @param results result of every simulation.
+ * @param wallNanos time taken by the whole ensemble.
+ */
+public class EnsembleResult {
+    private final List<SimulationResult> results;
+    private final long wallNanos;
+
+    /**
+     * Constructor for EnsembleResult.
+     * @param results result of every simulation.
+     * @param wallNanos time taken by the whole ensemble.
+     */
+    EnsembleResult(List<SimulationResult> results, long wallNanos){
+        this.results=Collections.unmodifiableList(results);
+        this.wallNanos=wallNanos;
+    }
+
+    /**
+     * Getter for results.
+     * @return result of every simulation, in the order of their specs.
+     */
+    public List<SimulationResult> getResults(){ return results; }
+
+    /**
+     * Getter for wallNanos.
+     * @return time taken by the whole ensemble, in nanoseconds.
+     */
+    public long getWallNanos(){ return wallNanos; }
+
+    /**
+     * Returns the number of simulations.
+     * @return number of results.
+     */
+    public int getSimulations(){ return results.size(); }
+
+    /**
+     * Returns the number of generations calculated by all simulations.
+     * @return sum of generations.
+     */
+    public long getGenerations(){
+        long sum=0;
+        for(SimulationResult r: results){
+            sum+=r.getGenerations();
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the number of cells calculated per second of wall time, by all simulations together.
+     * @return cells per second.
+     */
+    public double getCellsPerSecond(){
+        double cells=0;
+        for(SimulationResult r: results){
+            cells+=(double)r.getSpec().getWidth()*r.getSpec().getHeight()*r.getGenerations();
+        }
+        return wallNanos==0 ? 0 : cells*1e9/wallNanos;
+    }
+
+    /**
+     * Returns how many simulations ran at the same time on average: time of all simulations divided by wall time.
+     * Only a speedup when there are as many processors.
+     * @return mean number of simulations running at once.
+     */
+    public double getConcurrency(){
+        long sum=0;
+        for(SimulationResult r: results){
+            sum+=r.getNanos();
+        }
+        return wallNanos==0 ? 0 : (double)sum/wallNanos;
+    }
+
+    /**
+     * Returns the mean final population.
+     * @return mean number of living cells at the end, 0 without results.
+     */
+    public double getMeanPopulation(){
+        double sum=0;
+        for(SimulationResult r: results){
+            sum+=r.getPopulation();
+        }
+        return results.isEmpty() ? 0 : sum/results.size();
+    }
+
+    /**
+     * Returns the standard deviation of the final population.
+     * @return standard deviation of the number of living cells at the end, 0 without results.
+     */
+    public double getPopulationDeviation(){
+        double mean=getMeanPopulation(), sum=0;
+        for(SimulationResult r: results){
+            sum+=(r.getPopulation()-mean)*(r.getPopulation()-mean);
+        }
+        return results.isEmpty() ? 0 : Math.sqrt(sum/results.size());
+    }
+
+    /**
+     * Returns the smallest final population.
+     * @return number of living cells, 0 without results.
+     */
+    public int getMinPopulation(){
+        int min=results.isEmpty() ? 0 : Integer.MAX_VALUE;
+        for(SimulationResult r: results){
+            min=Math.min(min,r.getPopulation());
+        }
+        return min;
+    }
+
+    /**
+     * Returns the largest final population.
+     * @return number of living cells, 0 without results.
+     */
+    public int getMaxPopulation(){
+        int max=0;
+        for(SimulationResult r: results){
+            max=Math.max(max,r.getPopulation());
+        }
+        return max;
+    }
+
+    /**
+     * Returns the mean fraction of the initial cells still alive at the end.
+     * @return final population divided by initial population, averaged over simulations starting with living cells.
+     */
+    public double getMeanSurvival(){
+        double sum=0;
+        int n=0;
+        for(SimulationResult r: results){
+            if(r.getInitialPopulation()>0){
+                sum+=(double)r.getPopulation()/r.getInitialPopulation();
+                n++;
+            }
+        }
+        return n==0 ? 0 : sum/n;
+    }
+
+    /**
+     * Returns the fraction of simulations that ended still.
+     * @return number between 0 and 1.
+     */
+    public double getStillFraction(){
+        int n=0;
+        for(SimulationResult r: results){
+            if(r.getPeriod()==1){
+                n++;
+            }
+        }
+        return results.isEmpty() ? 0 : (double)n/results.size();
+    }
+
+    /**
+     * Returns the fraction of simulations that ended still or periodic.
+     * @return number between 0 and 1.
+     */
+    public double getCyclingFraction(){
+        int n=0;
+        for(SimulationResult r: results){
+            if(r.getPeriod()>0){
+                n++;
+            }
+        }
+        return results.isEmpty() ? 0 : (double)n/results.size();
+    }
+
+    /**
+     * Returns the mean generation at which simulations became still or periodic.
+     * @return mean first generation of the cycles, 0 if none was detected.
+     */
+    public double getMeanCycleStart(){
+        double sum=0;
+        int n=0;
+        for(SimulationResult r: results){
+            if(r.getPeriod()>0){
+                sum+=r.getCycleStart();
+                n++;
+            }
+        }
+        return n==0 ? 0 : sum/n;
+    }
+
+    /**
+     * Splits the results by a parameter of their spec, for sweeps: every group gets statistics of its own.
+     * Groups share the wall time of the whole ensemble.
+     * @param key parameter of the spec, such as SimulationSpec::getDensity or SimulationSpec::getRule.
+     * @param <K> type of the parameter.
+     * @return results of every value of the parameter, in the order the values first appear.
+     */
+    public <K> Map<K,EnsembleResult> groupBy(Function<SimulationSpec,K> key){
+        Map<K,List<SimulationResult>> groups=new LinkedHashMap<>();
+        for(SimulationResult r: results){
+            groups.computeIfAbsent(key.apply(r.getSpec()),k -> new ArrayList<>()).add(r);
+        }
+        Map<K,EnsembleResult> map=new LinkedHashMap<>();
+        for(Map.Entry<K,List<SimulationResult>> e: groups.entrySet()){
+            map.put(e.getKey(),new EnsembleResult(e.getValue(),wallNanos));
+        }
+        return map;
+    }
+
+    /**
+     * Describes the statistics of the ensemble.
+     * @return one line per statistic.
+     */
+    @Override
+    public String toString(){
+        return String.format("Simulations : %d%n",getSimulations())
+                +String.format("Generations : %d%n",getGenerations())
+                +String.format("Wall time : %.3f s%n",wallNanos/1e9)
+                +String.format("Cells/sec : %.3e%n",getCellsPerSecond())
+                +String.format("Concurrency : %.2f%n",getConcurrency())
+                +String.format("Final population : %.1f mean, %.1f deviation, %d min, %d max%n",
+                        getMeanPopulation(),getPopulationDeviation(),getMinPopulation(),getMaxPopulation())
+                +String.format("Survival : %.4f%n",getMeanSurvival())
+                +String.format("Still : %.1f%%, cycling : %.1f%%, mean cycle start : %.1f",
+                        getStillFraction()*100,getCyclingFraction()*100,getMeanCycleStart());
+    }
+}
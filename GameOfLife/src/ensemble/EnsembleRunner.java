@@ -0,0 +1,182 @@
+package ensemble;
+
+import automaton.JeuDeLaVie;
+import engines.Engine;
+import engines.Engines;
+import grids.GridBits;
+import history.CycleDetector;
+import visitors.VisitorRule;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs many independent simulations at once, for parameter sweeps and statistics over random grids.
+ * Every simulation has its own game, grid, visitor, engine and counters, and nothing is shared between them.
+ * Simulations run on virtual threads when the JVM has them (Java 21 and later, looked up by reflection
+ * so that the game still runs on older versions), on a pool of platform threads otherwise.
+ * Either way, at most parallelism simulations run at once: they only calculate, so more would not go faster,
+ * and a game is only created when its simulation starts, which bounds the memory used by thousands of them.
+ * @param VIRTUAL_THREADS factory method of the executor running every task on a new virtual thread, null if missing.
+ * @param parallelism maximum number of simulations running at once.
+ * @param virtual true if virtual threads are used.
+ * @param cycleGenerations number of generations kept by the cycle detector of every simulation, 0 for none.
+ * @param stopOnCycle true if a simulation ends as soon as its grid becomes still or periodic.
+ */
+public class EnsembleRunner {
+    private static final Method VIRTUAL_THREADS=virtualThreads();
+
+    private final int parallelism;
+    private final boolean virtual;
+    private int cycleGenerations;
+    private boolean stopOnCycle;
+
+    /**
+     * Constructor for EnsembleRunner. Runs one simulation per available processor at once, on virtual threads if possible.
+     */
+    public EnsembleRunner(){ this(Runtime.getRuntime().availableProcessors(),true); }
+
+    /**
+     * Constructor for EnsembleRunner.
+     * @param parallelism maximum number of simulations running at once.
+     * @param virtual true to use virtual threads if the JVM has them, false to always use a pool of platform threads.
+     */
+    public EnsembleRunner(int parallelism, boolean virtual){
+        this.parallelism=Math.max(1,parallelism);
+        this.virtual=virtual && VIRTUAL_THREADS!=null;
+    }
+
+    /**
+     * Looks up Executors.newVirtualThreadPerTaskExecutor.
+     * @return the method, null if the JVM has no virtual threads.
+     */
+    private static Method virtualThreads(){
+        try{
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        }catch(NoSuchMethodException e){
+            return null;
+        }
+    }
+
+    /**
+     * Setter for cycle detection.
+     * @param generations number of generations kept by the cycle detector of every simulation, and longest period detected, 0 for none.
+     * @param stop true to end a simulation as soon as its grid becomes still or periodic.
+     */
+    public void setCycleDetection(int generations, boolean stop){
+        cycleGenerations=Math.max(0,generations);
+        stopOnCycle=stop && generations>0;
+    }
+
+    /**
+     * Getter for parallelism.
+     * @return maximum number of simulations running at once.
+     */
+    public int getParallelism(){ return parallelism; }
+
+    /**
+     * Tells which threads run the simulations.
+     * @return description of the threads.
+     */
+    public String describe(){ return (virtual ? "virtual threads" : "platform threads")+", "+parallelism+" at once"; }
+
+    /**
+     * Runs simulations and waits for all of them.
+     * @param specs settings of every simulation.
+     * @return the results, in the order of the specs.
+     * @throws InterruptedException if the calling thread is interrupted. Simulations still running are interrupted too.
+     * @throws IllegalStateException if a simulation fails, with the cause of the failure.
+     */
+    public EnsembleResult run(List<SimulationSpec> specs) throws InterruptedException {
+        Semaphore running=new Semaphore(parallelism,true);
+        long start=System.nanoTime();
+        ExecutorService executor=executor();
+        try{
+            List<Future<SimulationResult>> futures=new ArrayList<>(specs.size());
+            for(SimulationSpec spec: specs){
+                futures.add(executor.submit(() -> {
+                    running.acquire();
+                    try{
+                        return simulate(spec);
+                    }finally{
+                        running.release();
+                    }
+                }));
+            }
+            List<SimulationResult> results=new ArrayList<>(specs.size());
+            for(int i=0; i<futures.size(); i++){
+                try{
+                    results.add(futures.get(i).get());
+                }catch(ExecutionException e){
+                    throw new IllegalStateException("Simulation failed : "+specs.get(i),e.getCause());
+                }
+            }
+            return new EnsembleResult(results,System.nanoTime()-start);
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates the executor running the simulations.
+     * @return an executor starting a virtual thread per simulation, or a pool of parallelism daemon threads.
+     */
+    private ExecutorService executor(){
+        if(virtual){
+            try{
+                return (ExecutorService)VIRTUAL_THREADS.invoke(null);
+            }catch(ReflectiveOperationException e){
+                // Virtual threads in preview and not enabled: a pool of platform threads does the same
+            }
+        }
+        return Executors.newFixedThreadPool(parallelism,r -> {
+            Thread t=new Thread(r,"Ensemble");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Runs one simulation in a game of its own. Stops early if the thread is interrupted, when the ensemble is abandoned.
+     * Generations go through JeuDeLaVie.step, so the game records no event and starts no observer thread.
+     * @param spec settings of the simulation.
+     * @return its result.
+     */
+    private SimulationResult simulate(SimulationSpec spec){
+        long start=System.nanoTime();
+        JeuDeLaVie game=new JeuDeLaVie();
+        game.setGrid(new GridBits(spec.getWidth(),spec.getHeight()));
+        game.setDensity(spec.getDensity());
+        game.initializeGrid(spec.getSeed());
+        game.setVisitor(new VisitorRule(game,spec.getRule()));
+        game.setTopology(spec.getTopology());
+        CycleDetector cycles=null;
+        if(cycleGenerations>0){
+            cycles=new CycleDetector(cycleGenerations);
+            game.setCycleDetector(cycles);
+        }
+        Engine engine=Engines.create(spec.getEngine());
+        game.setEngine(engine);
+
+        int initial=game.getPopulation();
+        long done=0, births=0, deaths=0;
+        try{
+            while(done<spec.getGenerations() && !(stopOnCycle && cycles.isCycling()) && !Thread.currentThread().isInterrupted()){
+                game.step();
+                births+=game.getBirths();
+                deaths+=game.getDeaths();
+                done++;
+            }
+        }finally{
+            Engines.dispose(engine);
+        }
+        return new SimulationResult(spec,done,initial,game.getPopulation(),births,deaths,
+                cycles==null ? 0 : cycles.getPeriod(),cycles==null ? 0 : cycles.getCycleStart(),System.nanoTime()-start);
+    }
+}
@@ -0,0 +1,103 @@
+package ensemble;
+
+/**
+ * Outcome of one simulation of an ensemble.
+ * @param spec settings of the simulation.
+ * @param generations number of generations calculated, fewer than asked if the simulation stopped on a cycle.
+ * @param initialPopulation number of living cells of the initial grid.
+ * @param population number of living cells at the end.
+ * @param births number of cells born during all generations.
+ * @param deaths number of cells that died during all generations.
+ * @param period period of the cycle the grid ended in, 1 if still, 0 if none was detected or cycles were not checked.
+ * @param cycleStart first generation of the cycle.
+ * @param nanos time taken by the simulation, initialization included.
+ */
+public class SimulationResult {
+    private final SimulationSpec spec;
+    private final long generations;
+    private final int initialPopulation,population;
+    private final long births,deaths;
+    private final int period;
+    private final long cycleStart;
+    private final long nanos;
+
+    /**
+     * Constructor for SimulationResult.
+     */
+    SimulationResult(SimulationSpec spec, long generations, int initialPopulation, int population, long births, long deaths,
+                     int period, long cycleStart, long nanos){
+        this.spec=spec;
+        this.generations=generations;
+        this.initialPopulation=initialPopulation;
+        this.population=population;
+        this.births=births;
+        this.deaths=deaths;
+        this.period=period;
+        this.cycleStart=cycleStart;
+        this.nanos=nanos;
+    }
+
+    /**
+     * Getter for spec.
+     * @return settings of the simulation.
+     */
+    public SimulationSpec getSpec(){ return spec; }
+
+    /**
+     * Getter for generations.
+     * @return number of generations calculated.
+     */
+    public long getGenerations(){ return generations; }
+
+    /**
+     * Getter for initialPopulation.
+     * @return number of living cells of the initial grid.
+     */
+    public int getInitialPopulation(){ return initialPopulation; }
+
+    /**
+     * Getter for population.
+     * @return number of living cells at the end.
+     */
+    public int getPopulation(){ return population; }
+
+    /**
+     * Getter for births.
+     * @return number of cells born during all generations.
+     */
+    public long getBirths(){ return births; }
+
+    /**
+     * Getter for deaths.
+     * @return number of cells that died during all generations.
+     */
+    public long getDeaths(){ return deaths; }
+
+    /**
+     * Getter for period.
+     * @return period of the cycle the grid ended in, 1 if still, 0 if none was detected.
+     */
+    public int getPeriod(){ return period; }
+
+    /**
+     * Getter for cycleStart.
+     * @return first generation of the cycle, meaningful when a period was detected.
+     */
+    public long getCycleStart(){ return cycleStart; }
+
+    /**
+     * Getter for nanos.
+     * @return time taken by the simulation in nanoseconds.
+     */
+    public long getNanos(){ return nanos; }
+
+    /**
+     * Describes the result.
+     * @return spec, generations, population and cycle.
+     */
+    @Override
+    public String toString(){
+        return spec+" : "+generations+" generations, population "+initialPopulation+" -> "+population
+                +(period==0 ? "" : period==1 ? ", still since "+cycleStart : ", period "+period+" since "+cycleStart);
+    }
+}
@@ -0,0 +1,155 @@
+package ensemble;
+
+import grids.Topology;
+import visitors.Rule;
+
+/**
+ * Settings of one simulation of an ensemble. Immutable: with* methods return a modified copy,
+ * so that a sweep starts from one spec and changes a parameter per simulation.
+ * @param width size of the grid on X axis.
+ * @param height size of the grid on Y axis.
+ * @param density density of living cells of the initial grid.
+ * @param rule rule of the simulation.
+ * @param seed seed of the initial grid.
+ * @param topology shape of the grid.
+ * @param engine name of the engine, one of Engines.NAMES.
+ * @param generations number of generations to calculate.
+ */
+public class SimulationSpec {
+    private final int width,height;
+    private final double density;
+    private final Rule rule;
+    private final long seed;
+    private final Topology topology;
+    private final String engine;
+    private final long generations;
+
+    /**
+     * Constructor for SimulationSpec. A 500x500 plane of density 0.5 with classic rules, seed 0,
+     * calculated for 1000 generations by the buffered engine.
+     */
+    public SimulationSpec(){ this(500,500,0.5,Rule.CLASSIC,0,Topology.PLANE,"buffered",1000); }
+
+    /**
+     * Constructor for SimulationSpec.
+     */
+    private SimulationSpec(int width, int height, double density, Rule rule, long seed, Topology topology, String engine, long generations){
+        this.width=width;
+        this.height=height;
+        this.density=density;
+        this.rule=rule;
+        this.seed=seed;
+        this.topology=topology;
+        this.engine=engine;
+        this.generations=generations;
+    }
+
+    /**
+     * Returns a copy with other dimensions.
+     * @param w size of the grid on X axis.
+     * @param h size of the grid on Y axis.
+     * @return the copy.
+     */
+    public SimulationSpec withSize(int w, int h){ return new SimulationSpec(w,h,density,rule,seed,topology,engine,generations); }
+
+    /**
+     * Returns a copy with another density.
+     * @param d density of living cells, between 0 and 1.
+     * @return the copy.
+     */
+    public SimulationSpec withDensity(double d){ return new SimulationSpec(width,height,d,rule,seed,topology,engine,generations); }
+
+    /**
+     * Returns a copy with another rule.
+     * @param r the rule.
+     * @return the copy.
+     */
+    public SimulationSpec withRule(Rule r){ return new SimulationSpec(width,height,density,r,seed,topology,engine,generations); }
+
+    /**
+     * Returns a copy with another seed.
+     * @param s seed of the initial grid.
+     * @return the copy.
+     */
+    public SimulationSpec withSeed(long s){ return new SimulationSpec(width,height,density,rule,s,topology,engine,generations); }
+
+    /**
+     * Returns a copy with another topology.
+     * @param t shape of the grid.
+     * @return the copy.
+     */
+    public SimulationSpec withTopology(Topology t){ return new SimulationSpec(width,height,density,rule,seed,t,engine,generations); }
+
+    /**
+     * Returns a copy with another engine. Engines with threads of their own, such as parallel,
+     * compete with the other simulations for the processors.
+     * @param e name of the engine.
+     * @return the copy.
+     */
+    public SimulationSpec withEngine(String e){ return new SimulationSpec(width,height,density,rule,seed,topology,e,generations); }
+
+    /**
+     * Returns a copy with another number of generations.
+     * @param g number of generations.
+     * @return the copy.
+     */
+    public SimulationSpec withGenerations(long g){ return new SimulationSpec(width,height,density,rule,seed,topology,engine,g); }
+
+    /**
+     * Getter for width.
+     * @return size of the grid on X axis.
+     */
+    public int getWidth(){ return width; }
+
+    /**
+     * Getter for height.
+     * @return size of the grid on Y axis.
+     */
+    public int getHeight(){ return height; }
+
+    /**
+     * Getter for density.
+     * @return density of living cells of the initial grid.
+     */
+    public double getDensity(){ return density; }
+
+    /**
+     * Getter for rule.
+     * @return rule of the simulation.
+     */
+    public Rule getRule(){ return rule; }
+
+    /**
+     * Getter for seed.
+     * @return seed of the initial grid.
+     */
+    public long getSeed(){ return seed; }
+
+    /**
+     * Getter for topology.
+     * @return shape of the grid.
+     */
+    public Topology getTopology(){ return topology; }
+
+    /**
+     * Getter for engine.
+     * @return name of the engine.
+     */
+    public String getEngine(){ return engine; }
+
+    /**
+     * Getter for generations.
+     * @return number of generations to calculate.
+     */
+    public long getGenerations(){ return generations; }
+
+    /**
+     * Describes the spec.
+     * @return size, density, rule, seed, topology, engine and generations.
+     */
+    @Override
+    public String toString(){
+        return width+"x"+height+" density "+density+" "+rule+" seed "+seed+" "+topology.name().toLowerCase()
+                +" "+engine+" "+generations+" generations";
+    }
+}
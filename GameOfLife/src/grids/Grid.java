@@ -0,0 +1,71 @@
+package grids;
+
+import cells.Cell;
+
+/**
+ * Interface that represents the storage of the cells of the game.
+ * Allows JeuDeLaVie to work the same way whether cells are stored as objects or as bits.
+ */
+public interface Grid {
+
+    /**
+     * Getter on width.
+     * @return number of cells on X axis.
+     */
+    public int getWidth();
+
+    /**
+     * Getter on height.
+     * @return number of cells on Y axis.
+     */
+    public int getHeight();
+
+    /**
+     * Checks if the cell at given coordinates is alive.
+     * @param x coordinate on X axis.
+     * @param y coordinate on Y axis.
+     * @return true if alive, false if not.
+     */
+    public boolean isAlive(int x, int y);
+
+    /**
+     * Resurrects the cell at given coordinates.
+     * @param x coordinate on X axis.
+     * @param y coordinate on Y axis.
+     */
+    public void live(int x, int y);
+
+    /**
+     * Kills the cell at given coordinates.
+     * @param x coordinate on X axis.
+     * @param y coordinate on Y axis.
+     */
+    public void die(int x, int y);
+
+    /**
+     * Returns cell at given coordinates. Modifying the cell modifies the grid.
+     * @param x coordinate on X axis.
+     * @param y coordinate on Y axis.
+     * @return the cell.
+     */
+    public Cell getCell(int x, int y);
+
+    /**
+     * Returns number of living cells.
+     * @return living cell counter.
+     */
+    public int countAlive();
+
+    /**
+     * Kills all cells.
+     */
+    public void clear();
+
+    /**
+     * Creates an empty grid using the same storage as this one.
+     * @param width number of cells on X axis.
+     * @param height number of cells on Y axis.
+     * @return the new grid.
+     */
+    public Grid create(int width, int height);
+}
@@ -0,0 +1,478 @@
+package grids;
+
+import cells.Cell;
+import cells.CellView;
+import visitors.Rule;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Implementation of Grid that stores every cell as a single bit of a long (bitboard).
+ * Bit k of a word is the cell on column 64*w+k of the row.
+ * Every row has a ghost word on each side and there is a ghost row above and under the grid,
+ * so the step kernel never has to check bounds. Ghost cells are dead, unless refreshGhosts copies
+ * the opposite edges into them to wrap the grid around (see Topology).
+ * The grid is divided in tiles of 64x64 cells (one word wide), and cells modified outside of the step
+ * kernel mark their tile as touched so that engines skipping inactive tiles know they must be calculated.
+ * The number of living cells is kept up to date by live, die and the step kernel, so counting is free.
+ * @param width number of cells on X axis.
+ * @param height number of cells on Y axis.
+ * @param words number of words holding the cells of a row.
+ * @param stride number of words of a row, ghost words included.
+ * @param lastMask mask of the bits of the last word of a row that are inside the grid.
+ * @param bits the bitboard, row by row.
+ * @param touched for every tile, true if one of its cells was modified since last call to consumeTouched.
+ * @param modifications number of cells modified outside of the step kernel since the creation of the grid.
+ * @param population number of living cells.
+ */
+public class GridBits implements Grid {
+    public static final int TILE_ROWS=64;
+
+    private final int width,height,words,stride;
+    private final long lastMask;
+    private final long[] bits;
+    private final boolean[] touched;
+    private long modifications;
+    private int population;
+
+    /**
+     * Constructor for GridBits. All cells are dead.
+     * @param width number of cells on X axis.
+     * @param height number of cells on Y axis.
+     */
+    public GridBits(int width, int height){
+        this.width=width;
+        this.height=height;
+        words=(width+63)>>>6;
+        stride=words+2;
+        lastMask=(width&63)==0 ? -1L : (1L<<(width&63))-1;
+        bits=new long[(height+2)*stride];
+        touched=new boolean[words*getTilesY()];
+        Arrays.fill(touched,true);
+    }
+
+    /**
+     * Returns index in the bitboard of the word that contains given cell.
+     * @param x coordinate on X axis.
+     * @param y coordinate on Y axis.
+     * @return index of the word.
+     */
+    private int index(int x, int y){ return (y+1)*stride+1+(x>>>6); }
+
+    /**
+     * Checks that a cell is inside the grid, so that writing it never reaches ghost cells or the bits after the last column,
+     * which would also make the population wrong.
+     * @param x coordinate on X axis.
+     * @param y coordinate on Y axis.
+     * @return x.
+     * @throws IndexOutOfBoundsException if the cell is outside of the grid.
+     */
+    private int check(int x, int y){
+        Objects.checkIndex(y,height);
+        return Objects.checkIndex(x,width);
+    }
+
+    /**
+     * Returns index of the tile that contains given cell.
+     * @param x coordinate on X axis.
+     * @param y coordinate on Y axis.
+     * @return index of the tile.
+     */
+    private int tile(int x, int y){ return (y/TILE_ROWS)*words+(x>>>6); }
+
+    /**
+     * Getter on width.
+     * @return number of cells on X axis.
+     */
+    public int getWidth(){ return width; }
+
+    /**
+     * Getter on height.
+     * @return number of cells on Y axis.
+     */
+    public int getHeight(){ return height; }
+
+    /**
+     * Checks if the cell at given coordinates is alive.
+     * @return true if alive, false if not.
+     */
+    public boolean isAlive(int x, int y){ return (bits[index(x,y)]>>>x & 1L)!=0; }
+
+    /**
+     * Resurrects the cell at given coordinates.
+     * @throws IndexOutOfBoundsException if the cell is outside of the grid, as with GridObjects.
+     */
+    public void live(int x, int y){
+        int i=index(check(x,y),y);
+        population+=(int)(~bits[i]>>>x&1L);
+        bits[i]|=1L<<x;
+        touched[tile(x,y)]=true;
+        modifications++;
+    }
+
+    /**
+     * Kills the cell at given coordinates.
+     * @throws IndexOutOfBoundsException if the cell is outside of the grid, as with GridObjects.
+     */
+    public void die(int x, int y){
+        int i=index(check(x,y),y);
+        population-=(int)(bits[i]>>>x&1L);
+        bits[i]&=~(1L<<x);
+        touched[tile(x,y)]=true;
+        modifications++;
+    }
+
+    /**
+     * Returns 64 cells of a row at once. Bit k is the cell on column 64*w+k, bits outside the grid are dead.
+     * @param w index of the word in the row.
+     * @param y coordinate on Y axis.
+     * @return the word.
+     */
+    public long getWord(int w, int y){
+        long word=bits[(y+1)*stride+1+w];
+        return w==words-1 ? word&lastMask : word;
+    }
+
+    /**
+     * Copies a whole row of cells, 64 per word. Bits outside the grid are dead.
+     * @param y coordinate on Y axis.
+     * @param into array of at least getTilesX() words receiving the row.
+     */
+    public void getRow(int y, long[] into){
+        System.arraycopy(bits,(y+1)*stride+1,into,0,words);
+        if(words>0){
+            into[words-1]&=lastMask;
+        }
+    }
+
+    /**
+     * Replaces a whole row of cells, 64 per word. Bits outside the grid are ignored.
+     * @param y coordinate on Y axis.
+     * @param from array of at least getTilesX() words holding the row.
+     */
+    public void setRow(int y, long[] from){
+        int row=(y+1)*stride+1;
+        for(int w=0; w<words; w++){
+            long word=w==words-1 ? from[w]&lastMask : from[w];
+            population+=Long.bitCount(word)-Long.bitCount(bits[row+w]);
+            bits[row+w]=word;
+            touched[tile(w<<6,y)]=true;
+        }
+        modifications++;
+    }
+
+    /**
+     * Returns a view on the cell at given coordinates. Cells are not stored, so a new view is created on each call.
+     * @return the cell.
+     */
+    public Cell getCell(int x, int y){ return new CellView(x,y,this); }
+
+    /**
+     * Returns number of living cells. The counter is maintained on every change, nothing is scanned.
+     * @return cpt - cell counter.
+     */
+    public int countAlive(){ return population; }
+
+    /**
+     * Kills all cells.
+     */
+    public void clear(){
+        Arrays.fill(bits,0L);
+        Arrays.fill(touched,true);
+        population=0;
+        modifications++;
+    }
+
+    /**
+     * Creates an empty GridBits.
+     * @return the new grid.
+     */
+    public Grid create(int width, int height){ return new GridBits(width,height); }
+
+    /**
+     * Getter on modifications. Allows to check if the grid was modified since a given moment.
+     * @return number of modifications made outside of the step kernel.
+     */
+    public long getModifications(){ return modifications; }
+
+    /**
+     * Returns number of tiles on X axis. A tile is one word wide.
+     * @return number of tiles.
+     */
+    public int getTilesX(){ return words; }
+
+    /**
+     * Returns number of tiles on Y axis.
+     * @return number of tiles.
+     */
+    public int getTilesY(){ return (height+TILE_ROWS-1)/TILE_ROWS; }
+
+    /**
+     * Adds the tiles touched since last call to the given array, then forgets them.
+     * @param into array indexed by tile (row of tiles then column), set to true for every touched tile.
+     */
+    public void consumeTouched(boolean[] into){
+        for(int i=0; i<touched.length; i++){
+            into[i]|=touched[i];
+            touched[i]=false;
+        }
+    }
+
+    /**
+     * Fills the ghost cells around the grid according to a topology, before calculating a generation.
+     * Only the edges are copied, so the kernel itself stays the same for every topology.
+     * Ghost rows are filled first, then ghost columns of every row including ghost rows, which fills the corners.
+     * @param topology the topology of the grid.
+     */
+    public void refreshGhosts(Topology topology){
+        if(topology==Topology.PLANE || width==0 || height==0){
+            return;
+        }
+        if(topology==Topology.TORUS){
+            System.arraycopy(bits,height*stride+1,bits,1,words);
+            System.arraycopy(bits,stride+1,bits,(height+1)*stride+1,words);
+        }else{
+            mirror(height*stride,0);
+            mirror(stride,(height+1)*stride);
+        }
+        long ghost=1L<<(width&63);
+        int east=(width&63)==0 ? words+1 : words;
+        for(int y=0; y<=height+1; y++){
+            int row=y*stride;
+            bits[row]=(bits[row+words]>>>((width-1)&63))<<63;
+            bits[row+words]&=lastMask;
+            bits[row+words+1]=0L;
+            bits[row+east]|=(bits[row+1]&1L)!=0 ? ghost : 0L;
+        }
+    }
+
+    /**
+     * Writes a row mirrored into another row: cell x is copied into cell width-1-x.
+     * @param from index of the first word of the row to copy (ghost word included).
+     * @param to index of the first word of the row to write (ghost word included).
+     */
+    private void mirror(int from, int to){
+        Arrays.fill(bits,to+1,to+words+1,0L);
+        for(int x=0; x<width; x++){
+            if((bits[from+1+(x>>>6)]>>>x&1L)!=0){
+                int m=width-1-x;
+                bits[to+1+(m>>>6)]|=1L<<m;
+            }
+        }
+    }
+
+    /**
+     * Kills all ghost cells, after a generation was calculated with refreshGhosts.
+     */
+    public void clearGhosts(){
+        Arrays.fill(bits,0,stride,0L);
+        Arrays.fill(bits,(height+1)*stride,(height+2)*stride,0L);
+        for(int y=1; y<=height; y++){
+            int row=y*stride;
+            bits[row]=0L;
+            bits[row+words]&=lastMask;
+            bits[row+words+1]=0L;
+        }
+    }
+
+    /**
+     * Calculates next generation of this grid into another grid of the same size.
+     * Works word by word on the bitboard, so no cell object is ever created.
+     * @param next grid that receives next generation.
+     * @param rule the rule to apply.
+     * @return births and deaths, packed as by the tile step.
+     */
+    public long step(GridBits next, Rule rule){
+        long[] out=next.bits;
+        byte[] table=rule.getTable();
+        long changes=0L;
+        for(int y=1; y<=height; y++){
+            int row=y*stride;
+            for(int k=row+1; k<=row+words; k++){
+                long word=nextWord(bits[k-stride-1],bits[k-stride],bits[k-stride+1],
+                                   bits[k-1],bits[k],bits[k+1],
+                                   bits[k+stride-1],bits[k+stride],bits[k+stride+1],table);
+                if(k==row+words){
+                    word&=lastMask;
+                }
+                changes+=(long)Long.bitCount(word&~bits[k])<<32 | Long.bitCount(bits[k]&~word);
+                out[k]=word;
+            }
+        }
+        commit(next,changes);
+        return changes;
+    }
+
+    /**
+     * Calculates next generation of a single tile of this grid into another grid of the same size.
+     * Cells around the tile are only read, so tiles can be calculated at the same time.
+     * Once all tiles are calculated, the sum of the results must be given to commit.
+     * @param next grid that receives next generation.
+     * @param rule the rule to apply.
+     * @param tx column of the tile.
+     * @param ty row of the tile.
+     * @return number of births in the upper 32 bits and number of deaths in the lower 32 bits,
+     *         0 if no cell of the tile changed. Results of several tiles can be added up.
+     */
+    public long step(GridBits next, Rule rule, int tx, int ty){
+        long[] out=next.bits;
+        byte[] table=rule.getTable();
+        long mask=tx==words-1 ? lastMask : -1L;
+        long changes=0L;
+        int last=Math.min(height,(ty+1)*TILE_ROWS);
+        for(int y=ty*TILE_ROWS+1; y<=last; y++){
+            int k=y*stride+1+tx;
+            long word=nextWord(bits[k-stride-1],bits[k-stride],bits[k-stride+1],
+                               bits[k-1],bits[k],bits[k+1],
+                               bits[k+stride-1],bits[k+stride],bits[k+stride+1],table)&mask;
+            long old=bits[k]&mask;
+            changes+=(long)Long.bitCount(word&~old)<<32 | Long.bitCount(old&~word);
+            out[k]=word;
+        }
+        return changes;
+    }
+
+    /**
+     * Calculates next generation of a single tile like step, with bit-sliced adders instead of the table of the rule:
+     * every operation works on the 64 cells of a word at once.
+     * @param next grid that receives next generation.
+     * @param rule the rule to apply.
+     * @param tx column of the tile.
+     * @param ty row of the tile.
+     * @return number of births in the upper 32 bits and number of deaths in the lower 32 bits, as step.
+     */
+    public long stepSliced(GridBits next, Rule rule, int tx, int ty){
+        long[] out=next.bits;
+        int birth=rule.getBirthMask(), survival=rule.getSurvivalMask();
+        long mask=tx==words-1 ? lastMask : -1L;
+        long changes=0L;
+        int last=Math.min(height,(ty+1)*TILE_ROWS);
+        for(int y=ty*TILE_ROWS+1; y<=last; y++){
+            int k=y*stride+1+tx;
+            long word=nextWordSliced(bits[k-stride-1],bits[k-stride],bits[k-stride+1],
+                                     bits[k-1],bits[k],bits[k+1],
+                                     bits[k+stride-1],bits[k+stride],bits[k+stride+1],birth,survival)&mask;
+            long old=bits[k]&mask;
+            changes+=(long)Long.bitCount(word&~old)<<32 | Long.bitCount(old&~word);
+            out[k]=word;
+        }
+        return changes;
+    }
+
+    /**
+     * Ends a generation calculated tile by tile: sets the number of living cells of the next grid.
+     * Tiles that were not calculated hold the same cells in both grids, so only the changes are needed.
+     * @param next grid that received next generation.
+     * @param changes sum of the results of the tile steps.
+     */
+    public void commit(GridBits next, long changes){ next.population=population+births(changes)-deaths(changes); }
+
+    /**
+     * Returns the number of births of the result of a step.
+     * @param changes result of a step.
+     * @return number of cells born.
+     */
+    public static int births(long changes){ return (int)(changes>>>32); }
+
+    /**
+     * Returns the number of deaths of the result of a step.
+     * @param changes result of a step.
+     * @return number of cells that died.
+     */
+    public static int deaths(long changes){ return (int)changes; }
+
+    /**
+     * Calculates next state of the 64 cells of a word.
+     * Neighbour words are needed for the cells on the edges of the word.
+     * The 3x3 neighbourhood of every cell is read as three 3-bit windows and looked up in the table of the rule.
+     * @param nw word on the upper left.
+     * @param n word above.
+     * @param ne word on the upper right.
+     * @param w word on the left.
+     * @param c the word.
+     * @param e word on the right.
+     * @param sw word on the lower left.
+     * @param s word under.
+     * @param se word on the lower right.
+     * @param table lookup table of the rule.
+     * @return next state of the word.
+     */
+    static long nextWord(long nw, long n, long ne, long w, long c, long e, long sw, long s, long se, byte[] table){
+        // Neighbours on the left and on the right, aligned on the cell
+        long nl=n<<1|nw>>>63, nr=n>>>1|ne<<63;
+        long cl=c<<1|w>>>63, cr=c>>>1|e<<63;
+        long sl=s<<1|sw>>>63, sr=s>>>1|se<<63;
+
+        if(table[0]==0 && (nl|n|nr|cl|c|cr|sl|s|sr)==0){
+            return 0L;
+        }
+
+        // Bits b-1, b and b+1 of a row are bits b to b+2 of the row shifted left, or bits b-2 to b of the row shifted right
+        long result=0L;
+        for(int b=0; b<62; b++){
+            int i=(int)(nl>>>b&7L | (cl>>>b&7L)<<3 | (sl>>>b&7L)<<6);
+            result|=(long)table[i]<<b;
+        }
+        for(int b=62; b<64; b++){
+            int i=(int)(nr>>>b-2&7L | (cr>>>b-2&7L)<<3 | (sr>>>b-2&7L)<<6);
+            result|=(long)table[i]<<b;
+        }
+        return result;
+    }
+
+    /**
+     * Calculates next state of the 64 cells of a word with boolean logic only.
+     * The eight neighbour words, aligned on the cells, are added with carry-save adders into the four bits
+     * of the number of neighbours of every cell. The rule is then a comparison of these bits with every
+     * number of neighbours of its birth and survival masks.
+     * @param nw word on the upper left.
+     * @param n word above.
+     * @param ne word on the upper right.
+     * @param w word on the left.
+     * @param c the word.
+     * @param e word on the right.
+     * @param sw word on the lower left.
+     * @param s word under.
+     * @param se word on the lower right.
+     * @param birth bit n set if a dead cell with n neighbours is born.
+     * @param survival bit n set if a living cell with n neighbours survives.
+     * @return next state of the word.
+     */
+    static long nextWordSliced(long nw, long n, long ne, long w, long c, long e, long sw, long s, long se, int birth, int survival){
+        long nl=n<<1|nw>>>63, nr=n>>>1|ne<<63;
+        long cl=c<<1|w>>>63, cr=c>>>1|e<<63;
+        long sl=s<<1|sw>>>63, sr=s>>>1|se<<63;
+
+        if((birth&1)==0 && (nl|n|nr|cl|c|cr|sl|s|sr)==0){
+            return 0L;
+        }
+
+        // Three adders give three sums of weight 1 and three carries of weight 2
+        long s0=nl^n^nr, c0=nl&n | nr&(nl^n);
+        long s1=cl^cr^sl, c1=cl&cr | sl&(cl^cr);
+        long s2=s^sr, c2=s&sr;
+        // Bit 0 of the count, and one more carry of weight 2
+        long bit0=s0^s1^s2, c3=s0&s1 | s2&(s0^s1);
+        // Four carries of weight 2 give bit 1, and two carries of weight 4
+        long t=c0^c1^c2, c4=c0&c1 | c2&(c0^c1);
+        long bit1=t^c3, c5=t&c3;
+        // At most eight neighbours: bit 3 is set only if both carries of weight 4 are
+        long bit2=c4^c5, bit3=c4&c5;
+
+        long born=0L, survives=0L;
+        for(int count=0; count<=8; count++){
+            if(((birth|survival)>>>count&1)!=0){
+                long equal=((count&1)!=0 ? bit0 : ~bit0)&((count&2)!=0 ? bit1 : ~bit1)
+                          &((count&4)!=0 ? bit2 : ~bit2)&((count&8)!=0 ? bit3 : ~bit3);
+                if((birth>>>count&1)!=0){
+                    born|=equal;
+                }
+                if((survival>>>count&1)!=0){
+                    survives|=equal;
+                }
+            }
+        }
+        return ~c&born | c&survives;
+    }
+}
@@ -0,0 +1,99 @@
+package grids;
+
+import cells.Cell;
+import cells.StateDead;
+
+/**
+ * Implementation of Grid that stores every cell as a Cell object.
+ * This is the original storage of the game, kept as a reference.
+ * @param width number of cells on X axis.
+ * @param height number of cells on Y axis.
+ * @param cells array of cells, indexed by row then column.
+ */
+public class GridObjects implements Grid {
+    private final int width,height;
+    private final Cell[][] cells;
+
+    /**
+     * Constructor for GridObjects. All cells are dead.
+     * @param width number of cells on X axis.
+     * @param height number of cells on Y axis.
+     */
+    public GridObjects(int width, int height){
+        this.width=width;
+        this.height=height;
+        cells=new Cell[height][width];
+        for(int i=0; i<height; i++){
+            for(int j=0; j<width; j++){
+                cells[i][j]=new Cell(j,i, StateDead.getInstance());
+            }
+        }
+    }
+
+    /**
+     * Getter on width.
+     * @return number of cells on X axis.
+     */
+    public int getWidth(){ return width; }
+
+    /**
+     * Getter on height.
+     * @return number of cells on Y axis.
+     */
+    public int getHeight(){ return height; }
+
+    /**
+     * Checks if the cell at given coordinates is alive.
+     * @return true if alive, false if not.
+     */
+    public boolean isAlive(int x, int y){ return cells[y][x].isAlive(); }
+
+    /**
+     * Resurrects the cell at given coordinates.
+     */
+    public void live(int x, int y){ cells[y][x].live(); }
+
+    /**
+     * Kills the cell at given coordinates.
+     */
+    public void die(int x, int y){ cells[y][x].die(); }
+
+    /**
+     * Returns the Cell object stored at given coordinates.
+     * @return the cell.
+     */
+    public Cell getCell(int x, int y){ return cells[y][x]; }
+
+    /**
+     * Returns number of living cells. Scans every cell.
+     * @return cpt - cell counter.
+     */
+    public int countAlive(){
+        int cpt=0;
+        for(int i=0; i<height; i++){
+            for(int j=0; j<width; j++){
+                if(cells[i][j].isAlive()) {
+                    cpt+=1;
+                }
+            }
+        }
+        return cpt;
+    }
+
+    /**
+     * Kills all cells.
+     */
+    public void clear(){
+        for(int i=0; i<height; i++){
+            for(int j=0; j<width; j++){
+                cells[i][j].die();
+            }
+        }
+    }
+
+    /**
+     * Creates an empty GridObjects.
+     * @return the new grid.
+     */
+    public Grid create(int width, int height){ return new GridObjects(width,height); }
+}
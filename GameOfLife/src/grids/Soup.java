@@ -0,0 +1,97 @@
+package grids;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Fills grids with random cells ("soups") of a given density, the same way for a given seed.
+ * Every row has a random generator of its own, split from the generator of the seed in the order of the rows,
+ * so rows are generated in parallel and the grid does not depend on the number of threads.
+ * Cells are generated 64 at a time: each random bit is 1 with probability 1/2, and combining random words with
+ * AND and OR, one per binary digit of the density, gives words whose bits are 1 with probability the density.
+ * The density is rounded to PRECISION binary digits, and a density such as 0.5 or 0.25 takes one or two random words.
+ * Rows are generated in bands of BAND rows then written into the grid one after the other, with setRow for a GridBits,
+ * so the grid keeps count of its cells and is never written by two threads.
+ */
+public class Soup {
+    private static final int PRECISION=16;
+    private static final int BAND=1024;
+
+    /**
+     * Private constructor, the class only has static methods.
+     */
+    private Soup(){}
+
+    /**
+     * Replaces all cells of a grid with random cells.
+     * @param grid the grid.
+     * @param density probability of a cell to be alive, between 0 and 1.
+     * @param seed seed of the random generator. A seed always gives the same cells for a given width.
+     */
+    public static void fill(Grid grid, double density, long seed){
+        int width=grid.getWidth(), height=grid.getHeight(), words=(width+63)>>>6;
+        int threshold=(int)Math.round(Math.min(1,Math.max(0,density))*(1<<PRECISION));
+        SplittableRandom random=new SplittableRandom(seed);
+        long[][] rows=new long[Math.min(BAND,height)][words];
+        SplittableRandom[] generators=new SplittableRandom[rows.length];
+        for(int y0=0; y0<height; y0+=BAND){
+            int count=Math.min(BAND,height-y0);
+            for(int i=0; i<count; i++){
+                generators[i]=random.split();
+            }
+            IntStream.range(0,count).parallel().forEach(i -> {
+                for(int w=0; w<words; w++){
+                    rows[i][w]=word(generators[i],threshold);
+                }
+            });
+            for(int i=0; i<count; i++){
+                write(grid,y0+i,rows[i]);
+            }
+        }
+    }
+
+    /**
+     * Generates 64 random cells.
+     * @param random the generator.
+     * @param threshold density times 2 to the power PRECISION.
+     * @return a word whose bits are 1 with probability threshold/2^PRECISION.
+     */
+    static long word(SplittableRandom random, int threshold){
+        if(threshold<=0){
+            return 0L;
+        }
+        if(threshold>=1<<PRECISION){
+            return -1L;
+        }
+        // From the lowest digit to the highest: a digit 1 gives (1+p)/2 with OR, a digit 0 gives p/2 with AND
+        long word=random.nextLong();
+        for(int digit=Integer.numberOfTrailingZeros(threshold)+1; digit<PRECISION; digit++){
+            if((threshold>>>digit&1)!=0){
+                word|=random.nextLong();
+            }else{
+                word&=random.nextLong();
+            }
+        }
+        return word;
+    }
+
+    /**
+     * Writes a row into a grid, whole words at once for a GridBits, cell by cell otherwise.
+     * @param grid the grid.
+     * @param y coordinate on Y axis.
+     * @param row the cells, 64 per word.
+     */
+    private static void write(Grid grid, int y, long[] row){
+        if(grid instanceof GridBits bits){
+            bits.setRow(y,row);
+            return;
+        }
+        for(int x=0; x<grid.getWidth(); x++){
+            if((row[x>>>6]>>>x&1L)!=0){
+                grid.live(x,y);
+            }else{
+                grid.die(x,y);
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package grids;
+
+import java.util.Arrays;
+
+/**
+ * Keeps track of the tiles of a GridBits that changed during the last generation.
+ * A tile that did not change and whose neighbour tiles did not change either will not change in the next generation,
+ * so engines only calculate active tiles: the back grid already holds the same cells for the others.
+ * @param tilesX number of tiles on X axis.
+ * @param tilesY number of tiles on Y axis.
+ * @param changed for every tile, true if it changed during the last generation or was touched since.
+ * @param active for every tile, true if it has to be calculated during the current generation.
+ * @param front front grid of the last generation.
+ * @param back back grid of the last generation.
+ * @param backModifications modifications of the back grid when the last generation started.
+ * @param evaluated number of tiles calculated during the last generation, -1 if it was not calculated tile by tile.
+ */
+public class TileTracker {
+    private int tilesX,tilesY;
+    private boolean[] changed,active;
+    private GridBits front,back;
+    private long backModifications;
+    private int evaluated;
+
+    /**
+     * Starts a generation. Called by the game before every generation, so that a generation calculated
+     * by an engine that does not track tiles leaves no fraction of skipped tiles from an earlier engine.
+     */
+    public void startGeneration(){ evaluated=-1; }
+
+    /**
+     * Forgets the tiles that changed, so that every tile is calculated during the next generation.
+     * Called when the neighbours of cells or the rule change without the grid being modified.
+     */
+    public void reset(){
+        front=null;
+        back=null;
+        evaluated=-1;
+    }
+
+    /**
+     * Prepares the tiles to calculate for a generation going from front to back grid.
+     * If these are not the grids of the last generation swapped, every tile is calculated.
+     * When the grid wraps around, tiles on an edge are neighbours of the tiles on the opposite edge.
+     * @param front grid holding current generation.
+     * @param back grid that will receive next generation.
+     * @param topology topology of the grid.
+     */
+    public void prepare(GridBits front, GridBits back, Topology topology){
+        if(front!=this.back || back!=this.front || front.getTilesX()!=tilesX || front.getTilesY()!=tilesY){
+            tilesX=front.getTilesX();
+            tilesY=front.getTilesY();
+            changed=new boolean[tilesX*tilesY];
+            active=new boolean[tilesX*tilesY];
+            Arrays.fill(changed,true);
+        }
+        this.front=front;
+        this.back=back;
+        backModifications=back.getModifications();
+        front.consumeTouched(changed);
+
+        boolean wrap=topology!=Topology.PLANE;
+        boolean edges=false;
+        if(topology==Topology.KLEIN){
+            // Mirrored edges do not line up with tiles, any change on the top or bottom edge activates both edges
+            for(int tx=0; tx<tilesX; tx++){
+                edges|=changed[tx] || changed[(tilesY-1)*tilesX+tx];
+            }
+        }
+        evaluated=0;
+        for(int ty=0; ty<tilesY; ty++){
+            for(int tx=0; tx<tilesX; tx++){
+                boolean a=edges && (ty==0 || ty==tilesY-1);
+                for(int j=ty-1; j<=ty+1 && !a; j++){
+                    for(int i=tx-1; i<=tx+1 && !a; i++){
+                        int jj=j, ii=i;
+                        if(wrap){
+                            jj=(j+tilesY)%tilesY;
+                            ii=(i+tilesX)%tilesX;
+                        }
+                        a=jj>=0 && jj<tilesY && ii>=0 && ii<tilesX && changed[jj*tilesX+ii];
+                    }
+                }
+                active[ty*tilesX+tx]=a;
+                if(a){
+                    evaluated++;
+                }
+            }
+        }
+        Arrays.fill(changed,false);
+    }
+
+    /**
+     * Getter on tilesX.
+     * @return number of tiles on X axis.
+     */
+    public int getTilesX(){ return tilesX; }
+
+    /**
+     * Getter on tilesY.
+     * @return number of tiles on Y axis.
+     */
+    public int getTilesY(){ return tilesY; }
+
+    /**
+     * Checks if a tile has to be calculated during the current generation.
+     * @param tx column of the tile.
+     * @param ty row of the tile.
+     * @return true if the tile is active.
+     */
+    public boolean isActive(int tx, int ty){ return active[ty*tilesX+tx]; }
+
+    /**
+     * Records that a tile changed during the current generation.
+     * @param tx column of the tile.
+     * @param ty row of the tile.
+     */
+    public void setChanged(int tx, int ty){ changed[ty*tilesX+tx]=true; }
+
+    /**
+     * Checks if a tile changed during the last generation.
+     * @param tx column of the tile.
+     * @param ty row of the tile.
+     * @return true if the tile changed.
+     */
+    public boolean isChanged(int tx, int ty){ return changed[ty*tilesX+tx]; }
+
+    /**
+     * Checks if a grid holds the generation calculated tile by tile from another one during the last generation,
+     * and was not modified since. If so, the tiles that differ between both grids are exactly the changed ones.
+     * @param from grid holding the previous generation.
+     * @param to grid holding the current generation.
+     * @return true if to was calculated from from.
+     */
+    public boolean produced(GridBits from, GridBits to){
+        return evaluated>=0 && from==front && to==back && to.getModifications()==backModifications;
+    }
+
+    /**
+     * Returns the fraction of tiles that were not calculated during the last generation.
+     * @return number between 0 and 1, 0 if the last generation was not calculated tile by tile.
+     */
+    public double getSkippedFraction(){
+        int total=tilesX*tilesY;
+        return total==0 || evaluated<0 ? 0 : (double)(total-evaluated)/total;
+    }
+}
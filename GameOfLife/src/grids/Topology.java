@@ -0,0 +1,34 @@
+package grids;
+
+/**
+ * Shape of the grid, which decides what the neighbours of the cells on the edges are.
+ * PLANE : cells outside the grid are dead.
+ * TORUS : left and right edges are glued together, as well as top and bottom edges.
+ * KLEIN : same as TORUS, but the top edge is glued to the bottom edge mirrored (Klein bottle).
+ */
+public enum Topology {
+    PLANE, TORUS, KLEIN;
+
+    /**
+     * Checks if a cell is alive, coordinates outside of the grid being wrapped according to the topology.
+     * Used by the reference path, engines use the ghost cells of GridBits instead.
+     * @param g the grid.
+     * @param x coordinate on X axis, between -1 and the width of the grid.
+     * @param y coordinate on Y axis, between -1 and the height of the grid.
+     * @return true if alive, false if not.
+     */
+    public boolean isAlive(Grid g, int x, int y){
+        int w=g.getWidth(), h=g.getHeight();
+        if(this==PLANE){
+            return x>=0 && x<w && y>=0 && y<h && g.isAlive(x,y);
+        }
+        x=(x+w)%w;
+        if(y<0 || y>=h){
+            y=(y+h)%h;
+            if(this==KLEIN){
+                x=w-1-x;
+            }
+        }
+        return g.isAlive(x,y);
+    }
+}
@@ -0,0 +1,274 @@
+package grids;
+
+import visitors.Rule;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unbounded universe. Cells are stored in chunks of 64x64 cells kept in a hash map indexed by chunk coordinates.
+ * A chunk is created when living cells reach its border and removed as soon as all its cells are dead,
+ * so memory depends on the population and not on the size of the area it covers.
+ * @param chunks chunks containing at least one living cell, or about to.
+ * @param list chunks of the current generation. Reused to avoid allocating a list every generation.
+ * @param births number of cells born during the last generation.
+ * @param deaths number of cells that died during the last generation.
+ */
+public class Universe {
+    public static final int CHUNK=64;
+    private static final long[] EMPTY=new long[CHUNK];
+
+    private final Map<Long,Chunk> chunks;
+    private final List<Chunk> list;
+    private long births,deaths;
+
+    /**
+     * Constructor for Universe. All cells are dead.
+     */
+    public Universe(){
+        chunks=new HashMap<>();
+        list=new ArrayList<>();
+    }
+
+    /**
+     * Returns the key of a chunk in the map.
+     * @param cx column of the chunk.
+     * @param cy row of the chunk.
+     * @return the key.
+     */
+    private static long key(int cx, int cy){ return (long)cx<<32 | (cy&0xFFFFFFFFL); }
+
+    /**
+     * Returns the chunk at given chunk coordinates.
+     * @return the chunk, or null if all its cells are dead.
+     */
+    private Chunk chunk(int cx, int cy){ return chunks.get(key(cx,cy)); }
+
+    /**
+     * Returns the chunk at given chunk coordinates, creating it if needed.
+     * @return the chunk.
+     */
+    private Chunk chunkOrCreate(int cx, int cy){
+        return chunks.computeIfAbsent(key(cx,cy),k -> new Chunk(cx,cy));
+    }
+
+    /**
+     * Checks if the cell at given coordinates is alive.
+     * @return true if alive, false if not.
+     */
+    public boolean isAlive(int x, int y){
+        Chunk c=chunk(x>>6,y>>6);
+        return c!=null && (c.rows[y&63]>>>x&1L)!=0;
+    }
+
+    /**
+     * Resurrects the cell at given coordinates.
+     */
+    public void live(int x, int y){ chunkOrCreate(x>>6,y>>6).rows[y&63]|=1L<<x; }
+
+    /**
+     * Kills the cell at given coordinates. Empty chunks are removed at the next generation.
+     */
+    public void die(int x, int y){
+        Chunk c=chunk(x>>6,y>>6);
+        if(c!=null){
+            c.rows[y&63]&=~(1L<<x);
+        }
+    }
+
+    /**
+     * Returns number of living cells.
+     * @return cpt - cell counter.
+     */
+    public long countAlive(){
+        long cpt=0;
+        for(Chunk c: chunks.values()){
+            for(long row: c.rows){
+                cpt+=Long.bitCount(row);
+            }
+        }
+        return cpt;
+    }
+
+    /**
+     * Returns number of chunks in memory.
+     * @return chunk counter.
+     */
+    public int getChunkCount(){ return chunks.size(); }
+
+    /**
+     * Getter for births.
+     * @return number of cells born during the last generation.
+     */
+    public long getBirths(){ return births; }
+
+    /**
+     * Getter for deaths.
+     * @return number of cells that died during the last generation.
+     */
+    public long getDeaths(){ return deaths; }
+
+    /**
+     * Kills all cells and forgets all chunks.
+     */
+    public void clear(){ chunks.clear(); }
+
+    /**
+     * Replaces the cells of a window of the universe with the cells of a grid. Cells outside the window are kept.
+     * @param g the grid.
+     * @param left X coordinate of the universe of the first column of the grid.
+     * @param top Y coordinate of the universe of the first row of the grid.
+     */
+    public void importWindow(Grid g, int left, int top){
+        for(int y=0; y<g.getHeight(); y++){
+            for(int x=0; x<g.getWidth(); x++){
+                if(g.isAlive(x,y)){
+                    live(left+x,top+y);
+                }else{
+                    die(left+x,top+y);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies a window of the universe into a grid. The grid is cleared first.
+     * @param g the grid.
+     * @param left X coordinate of the universe shown on the first column of the grid.
+     * @param top Y coordinate of the universe shown on the first row of the grid.
+     */
+    public void exportWindow(Grid g, int left, int top){
+        g.clear();
+        for(Chunk c: chunks.values()){
+            int x0=c.cx*CHUNK-left, y0=c.cy*CHUNK-top;
+            if(x0+CHUNK<=0 || y0+CHUNK<=0 || x0>=g.getWidth() || y0>=g.getHeight()){
+                continue;
+            }
+            for(int r=Math.max(0,-y0); r<CHUNK && y0+r<g.getHeight(); r++){
+                long row=c.rows[r];
+                while(row!=0){
+                    int b=Long.numberOfTrailingZeros(row);
+                    row&=row-1;
+                    if(x0+b>=0 && x0+b<g.getWidth()){
+                        g.live(x0+b,y0+r);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculates next generation.
+     * First creates the chunks that living cells on a border may spread to, then calculates every chunk,
+     * and finally removes the chunks where all cells are dead.
+     * @param rule the rule to apply. Rules where cells are born with 0 neighbours are not supported.
+     */
+    public void step(Rule rule){
+        if(rule.next(0)!=0){
+            throw new IllegalArgumentException("An unbounded universe cannot run rules with B0 : "+rule);
+        }
+        byte[] table=rule.getTable();
+
+        list.clear();
+        list.addAll(chunks.values());
+        for(Chunk c: list){
+            long top=c.rows[0], bottom=c.rows[CHUNK-1], left=0, right=0;
+            for(long row: c.rows){
+                left|=row;
+                right|=row;
+            }
+            left&=1L;
+            right&=1L<<63;
+            if(top!=0) chunkOrCreate(c.cx,c.cy-1);
+            if(bottom!=0) chunkOrCreate(c.cx,c.cy+1);
+            if(left!=0) chunkOrCreate(c.cx-1,c.cy);
+            if(right!=0) chunkOrCreate(c.cx+1,c.cy);
+            if((top&1L)!=0) chunkOrCreate(c.cx-1,c.cy-1);
+            if((top&1L<<63)!=0) chunkOrCreate(c.cx+1,c.cy-1);
+            if((bottom&1L)!=0) chunkOrCreate(c.cx-1,c.cy+1);
+            if((bottom&1L<<63)!=0) chunkOrCreate(c.cx+1,c.cy+1);
+        }
+
+        list.clear();
+        list.addAll(chunks.values());
+        births=0;
+        deaths=0;
+        for(Chunk c: list){
+            step(c,table);
+        }
+        for(Chunk c: list){
+            long[] tmp=c.rows;
+            c.rows=c.next;
+            c.next=tmp;
+            long any=0;
+            for(long row: c.rows){
+                any|=row;
+            }
+            if(any==0){
+                chunks.remove(key(c.cx,c.cy));
+            }
+        }
+    }
+
+    /**
+     * Calculates next generation of a chunk into its next array, using the borders of the 8 chunks around it.
+     * @param c the chunk.
+     * @param table lookup table of the rule.
+     */
+    private void step(Chunk c, byte[] table){
+        long[] nw=rows(c.cx-1,c.cy-1), n=rows(c.cx,c.cy-1), ne=rows(c.cx+1,c.cy-1);
+        long[] w=rows(c.cx-1,c.cy), e=rows(c.cx+1,c.cy);
+        long[] sw=rows(c.cx-1,c.cy+1), s=rows(c.cx,c.cy+1), se=rows(c.cx+1,c.cy+1);
+        long[] m=c.rows;
+        for(int r=0; r<CHUNK; r++){
+            long aw,a,ae,bw,bn,be;
+            if(r==0){
+                aw=nw[CHUNK-1]; a=n[CHUNK-1]; ae=ne[CHUNK-1];
+            }else{
+                aw=w[r-1]; a=m[r-1]; ae=e[r-1];
+            }
+            if(r==CHUNK-1){
+                bw=sw[0]; bn=s[0]; be=se[0];
+            }else{
+                bw=w[r+1]; bn=m[r+1]; be=e[r+1];
+            }
+            long word=GridBits.nextWord(aw,a,ae,w[r],m[r],e[r],bw,bn,be,table);
+            births+=Long.bitCount(word&~m[r]);
+            deaths+=Long.bitCount(m[r]&~word);
+            c.next[r]=word;
+        }
+    }
+
+    /**
+     * Returns the rows of the chunk at given chunk coordinates.
+     * @return the rows, or rows of dead cells if the chunk does not exist.
+     */
+    private long[] rows(int cx, int cy){
+        Chunk c=chunk(cx,cy);
+        return c==null ? EMPTY : c.rows;
+    }
+
+    /**
+     * Square of 64x64 cells. Bit k of a row is the cell on column k of the chunk.
+     * @param cx column of the chunk.
+     * @param cy row of the chunk.
+     * @param rows cells of current generation.
+     * @param next cells of next generation.
+     */
+    private static class Chunk {
+        final int cx,cy;
+        long[] rows=new long[CHUNK], next=new long[CHUNK];
+
+        /**
+         * Constructor for Chunk. All cells are dead.
+         * @param cx column of the chunk.
+         * @param cy row of the chunk.
+         */
+        Chunk(int cx, int cy){
+            this.cx=cx;
+            this.cy=cy;
+        }
+    }
+}
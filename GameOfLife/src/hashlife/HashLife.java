@@ -0,0 +1,379 @@
+package hashlife;
+
+import grids.Grid;
+import visitors.Rule;
+
+/**
+ * HashLife engine. The universe is an unbounded plane stored as a quadtree of hash-consed nodes,
+ * and the future of every node is memoized, so repetitive patterns can be advanced by billions of generations.
+ * When the nodes exceed the memory budget, the cache is garbage collected: only nodes used by the current
+ * universe are kept and memoized results are forgotten.
+ * @param rule the rule applied. Rules where cells are born with 0 neighbours are not supported.
+ * @param table hash table of all nodes, chained through Node.next.
+ * @param count number of nodes in the table.
+ * @param empty empty node of every level.
+ * @param root the universe. A root of level k covers cells from -2^(k-1) to 2^(k-1)-1 on both axes.
+ * @param generation number of generations advanced since last import.
+ * @param memoryBudget maximal memory used by nodes, in bytes.
+ */
+public class HashLife {
+    private static final int NODE_BYTES=64;
+    private static final int MAX_LEVEL=60;
+
+    private final Rule rule;
+    private final Node dead,alive;
+    private Node[] table;
+    private int count;
+    private final Node[] empty;
+    private Node root;
+    private long generation;
+    private long memoryBudget;
+
+    /**
+     * Constructor for HashLife. The universe is empty.
+     * @param rule the rule applied.
+     * @param memoryBudget maximal memory used by nodes, in bytes.
+     */
+    public HashLife(Rule rule, long memoryBudget){
+        if(rule.next(0)!=0){
+            throw new IllegalArgumentException("HashLife cannot run rules with B0 : "+rule);
+        }
+        this.rule=rule;
+        this.memoryBudget=memoryBudget;
+        table=new Node[1<<16];
+        dead=new Node(false);
+        alive=new Node(true);
+        empty=new Node[MAX_LEVEL+2];
+        empty[0]=dead;
+        for(int i=1; i<empty.length; i++){
+            empty[i]=join(empty[i-1],empty[i-1],empty[i-1],empty[i-1]);
+        }
+        root=empty[3];
+    }
+
+    /**
+     * Getter for rule.
+     * @return the rule applied.
+     */
+    public Rule getRule(){ return rule; }
+
+    /**
+     * Getter for generation.
+     * @return number of generations advanced since last import.
+     */
+    public long getGeneration(){ return generation; }
+
+    /**
+     * Returns number of living cells in the whole universe.
+     * @return population.
+     */
+    public long getPopulation(){ return root.population; }
+
+    /**
+     * Returns number of nodes in the cache.
+     * @return node counter.
+     */
+    public int getNodeCount(){ return count; }
+
+    /**
+     * Setter for memory budget.
+     * @param bytes maximal memory used by nodes.
+     */
+    public void setMemoryBudget(long bytes){ memoryBudget=bytes; }
+
+    /*
+       ##########################
+       # IMPORT AND EXPORT      #
+       ##########################
+    */
+
+    /**
+     * Replaces the universe with the cells of a grid. Cell (x,y) of the grid becomes cell (x,y) of the universe.
+     * @param g the grid to import.
+     */
+    public void importGrid(Grid g){
+        int level=3;
+        while((1L<<(level-1))<Math.max(g.getWidth(),g.getHeight())){
+            level++;
+        }
+        long half=1L<<(level-1);
+        root=build(g,level,-half,-half);
+        generation=0;
+    }
+
+    /**
+     * Builds the node covering a square of the universe from a grid.
+     * @param g the grid.
+     * @param level level of the node.
+     * @param x0 X coordinate of the upper left cell of the node.
+     * @param y0 Y coordinate of the upper left cell of the node.
+     * @return the node.
+     */
+    private Node build(Grid g, int level, long x0, long y0){
+        long size=1L<<level;
+        if(x0>=g.getWidth() || y0>=g.getHeight() || x0+size<=0 || y0+size<=0){
+            return empty[level];
+        }
+        if(level==0){
+            return g.isAlive((int)x0,(int)y0) ? alive : dead;
+        }
+        long half=size>>1;
+        return join(build(g,level-1,x0,y0),build(g,level-1,x0+half,y0),
+                    build(g,level-1,x0,y0+half),build(g,level-1,x0+half,y0+half));
+    }
+
+    /**
+     * Copies a window of the universe into a grid. The grid is cleared first.
+     * @param g the grid receiving the window, which has the same dimensions.
+     * @param left X coordinate of the universe shown on the first column of the grid.
+     * @param top Y coordinate of the universe shown on the first row of the grid.
+     */
+    public void exportWindow(Grid g, long left, long top){
+        g.clear();
+        long half=1L<<(root.level-1);
+        paint(g,root,-half-left,-half-top);
+    }
+
+    /**
+     * Writes the living cells of a node into a grid.
+     * @param g the grid.
+     * @param n the node.
+     * @param x0 column of the grid of the upper left cell of the node.
+     * @param y0 row of the grid of the upper left cell of the node.
+     */
+    private void paint(Grid g, Node n, long x0, long y0){
+        long size=1L<<n.level;
+        if(n.population==0 || x0>=g.getWidth() || y0>=g.getHeight() || x0+size<=0 || y0+size<=0){
+            return;
+        }
+        if(n.level==0){
+            g.live((int)x0,(int)y0);
+            return;
+        }
+        long half=size>>1;
+        paint(g,n.nw,x0,y0);
+        paint(g,n.ne,x0+half,y0);
+        paint(g,n.sw,x0,y0+half);
+        paint(g,n.se,x0+half,y0+half);
+    }
+
+    /*
+       ##########################
+       # EVOLUTION              #
+       ##########################
+    */
+
+    /**
+     * Advances the universe by a number of generations, one power of two at a time.
+     * @param generations number of generations.
+     */
+    public void advance(long generations){
+        for(int j=0; j<63 && generations>>>j!=0; j++){
+            if((generations>>>j&1)!=0){
+                while(root.level<j+3 || !centered(root)){
+                    if(root.level>=MAX_LEVEL){
+                        throw new IllegalStateException("Universe is too large.");
+                    }
+                    root=expand(root);
+                }
+                root=successor(root,j);
+                generation+=1L<<j;
+                if((long)count*NODE_BYTES>memoryBudget){
+                    collect();
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that all living cells of a node are in its central square of half its size.
+     * Then no cell can leave the center of the node during 2^(level-3) generations.
+     * @param n the node.
+     * @return true if the border of the node is empty.
+     */
+    private boolean centered(Node n){
+        return n.nw.population==n.nw.se.se.population && n.ne.population==n.ne.sw.sw.population
+            && n.sw.population==n.sw.ne.ne.population && n.se.population==n.se.nw.nw.population;
+    }
+
+    /**
+     * Surrounds a node with empty space. The result has one more level and the same center.
+     * @param n the node.
+     * @return the bigger node.
+     */
+    private Node expand(Node n){
+        Node e=empty[n.level-1];
+        return join(join(e,e,e,n.nw),join(e,e,n.ne,e),join(e,n.sw,e,e),join(n.se,e,e,e));
+    }
+
+    /**
+     * Returns the center of a node after 2^min(j,level-2) generations. Results are memoized in the node.
+     * @param n node of level 2 or more.
+     * @param j log2 of the wanted number of generations.
+     * @return the center, a node of level n.level-1.
+     */
+    private Node successor(Node n, int j){
+        int step=Math.min(j,n.level-2);
+        if(n.result!=null && n.resultStep==step){
+            return n.result;
+        }
+        Node r;
+        if(n.population==0){
+            r=empty[n.level-1];
+        }else if(n.level==2){
+            r=base(n);
+        }else{
+            Node n00=n.nw, n01=horizontal(n.nw,n.ne), n02=n.ne;
+            Node n10=vertical(n.nw,n.sw), n11=center(n), n12=vertical(n.ne,n.se);
+            Node n20=n.sw, n21=horizontal(n.sw,n.se), n22=n.se;
+            if(step==n.level-2){
+                // Two half steps: each of the 9 sub-squares advances first, then the 4 squares made of them
+                n00=successor(n00,j); n01=successor(n01,j); n02=successor(n02,j);
+                n10=successor(n10,j); n11=successor(n11,j); n12=successor(n12,j);
+                n20=successor(n20,j); n21=successor(n21,j); n22=successor(n22,j);
+            }else{
+                n00=center(n00); n01=center(n01); n02=center(n02);
+                n10=center(n10); n11=center(n11); n12=center(n12);
+                n20=center(n20); n21=center(n21); n22=center(n22);
+            }
+            r=join(successor(join(n00,n01,n10,n11),j),successor(join(n01,n02,n11,n12),j),
+                   successor(join(n10,n11,n20,n21),j),successor(join(n11,n12,n21,n22),j));
+        }
+        n.result=r;
+        n.resultStep=step;
+        return r;
+    }
+
+    /**
+     * Calculates one generation of the center of a 4x4 node with the lookup table of the rule.
+     * @param n node of level 2.
+     * @return the 2x2 center after one generation.
+     */
+    private Node base(Node n){
+        int cells=0;
+        Node[] quadrants={n.nw,n.ne,n.sw,n.se};
+        for(int q=0; q<4; q++){
+            Node c=quadrants[q];
+            int x=(q&1)*2, y=(q>>1)*2;
+            cells|=(int)c.nw.population<<(y*4+x) | (int)c.ne.population<<(y*4+x+1)
+                  |(int)c.sw.population<<(y*4+x+4) | (int)c.se.population<<(y*4+x+5);
+        }
+        Node[] next=new Node[4];
+        for(int q=0; q<4; q++){
+            int x=1+(q&1), y=1+(q>>1);
+            int neighbourhood=(cells>>>((y-1)*4+x-1)&7) | (cells>>>(y*4+x-1)&7)<<3 | (cells>>>((y+1)*4+x-1)&7)<<6;
+            next[q]=rule.next(neighbourhood)!=0 ? alive : dead;
+        }
+        return join(next[0],next[1],next[2],next[3]);
+    }
+
+    /**
+     * Returns the center of a node, without any generation passing.
+     * @param n node of level 2 or more.
+     * @return node of level n.level-1.
+     */
+    private Node center(Node n){ return join(n.nw.se,n.ne.sw,n.sw.ne,n.se.nw); }
+
+    /**
+     * Returns the node between two nodes placed side by side.
+     * @param w node on the left.
+     * @param e node on the right.
+     * @return node of the same level.
+     */
+    private Node horizontal(Node w, Node e){ return join(w.ne,e.nw,w.se,e.sw); }
+
+    /**
+     * Returns the node between two nodes placed one above the other.
+     * @param n upper node.
+     * @param s lower node.
+     * @return node of the same level.
+     */
+    private Node vertical(Node n, Node s){ return join(n.sw,n.se,s.nw,s.ne); }
+
+    /*
+       ##########################
+       # NODE CACHE             #
+       ##########################
+    */
+
+    /**
+     * Returns the unique node made of four quadrants, creating it if needed.
+     * @return the node.
+     */
+    private Node join(Node nw, Node ne, Node sw, Node se){
+        int h=Node.hash(nw,ne,sw,se);
+        int i=h&(table.length-1);
+        for(Node n=table[i]; n!=null; n=n.next){
+            if(n.nw==nw && n.ne==ne && n.sw==sw && n.se==se){
+                return n;
+            }
+        }
+        Node n=new Node(nw,ne,sw,se);
+        n.next=table[i];
+        table[i]=n;
+        if(++count>table.length*3/4){
+            resize(table.length*2);
+        }
+        return n;
+    }
+
+    /**
+     * Changes the size of the hash table, keeping all nodes.
+     * @param size new size, a power of two.
+     */
+    private void resize(int size){
+        Node[] old=table;
+        table=new Node[size];
+        for(Node head: old){
+            Node n=head;
+            while(n!=null){
+                Node next=n.next;
+                int i=n.hash&(size-1);
+                n.next=table[i];
+                table[i]=n;
+                n=next;
+            }
+        }
+    }
+
+    /**
+     * Forgets every node that is not part of the current universe, as well as all memoized results.
+     */
+    public void collect(){
+        Node[] old=table;
+        for(Node head: old){
+            for(Node n=head; n!=null; n=n.next){
+                n.result=null;
+            }
+        }
+        table=new Node[old.length];
+        count=0;
+        for(Node e: empty){
+            keep(e);
+        }
+        keep(root);
+    }
+
+    /**
+     * Puts a node and its descendants back in the hash table.
+     * @param n the node.
+     */
+    private void keep(Node n){
+        if(n.level==0){
+            return;
+        }
+        int i=n.hash&(table.length-1);
+        for(Node m=table[i]; m!=null; m=m.next){
+            if(m==n){
+                return;
+            }
+        }
+        keep(n.nw);
+        keep(n.ne);
+        keep(n.sw);
+        keep(n.se);
+        n.next=table[i];
+        table[i]=n;
+        count++;
+    }
+}
@@ -0,0 +1,66 @@
+package hashlife;
+
+/**
+ * Node of the quadtree used by HashLife. A node of level k is a square of 2^k x 2^k cells made of four nodes of level k-1.
+ * Nodes are never modified once created, and HashLife makes sure that two nodes with the same content are the same object,
+ * so their next generations only need to be calculated once.
+ * @param nw upper left quadrant.
+ * @param ne upper right quadrant.
+ * @param sw lower left quadrant.
+ * @param se lower right quadrant.
+ * @param level the node is a square of 2^level cells. Level 0 nodes are single cells.
+ * @param population number of living cells.
+ * @param hash hash code, calculated from the children.
+ * @param result memoized center of the node after resultStep generations.
+ * @param resultStep log2 of the number of generations of result.
+ * @param next next node in the same bucket of the hash table.
+ */
+final class Node {
+    final Node nw,ne,sw,se;
+    final int level;
+    final long population;
+    final int hash;
+    Node result;
+    int resultStep;
+    Node next;
+
+    /**
+     * Constructor for a single cell.
+     * @param alive true for a living cell.
+     */
+    Node(boolean alive){
+        nw=ne=sw=se=null;
+        level=0;
+        population=alive ? 1 : 0;
+        hash=alive ? 1 : 0;
+    }
+
+    /**
+     * Constructor for a node made of four quadrants of the same level.
+     * @param nw upper left quadrant.
+     * @param ne upper right quadrant.
+     * @param sw lower left quadrant.
+     * @param se lower right quadrant.
+     */
+    Node(Node nw, Node ne, Node sw, Node se){
+        this.nw=nw;
+        this.ne=ne;
+        this.sw=sw;
+        this.se=se;
+        level=nw.level+1;
+        population=nw.population+ne.population+sw.population+se.population;
+        hash=hash(nw,ne,sw,se);
+    }
+
+    /**
+     * Calculates the hash of a node from its quadrants.
+     * @return hash code.
+     */
+    static int hash(Node nw, Node ne, Node sw, Node se){
+        int h=nw.hash;
+        h=h*0x9E3779B1+ne.hash;
+        h=h*0x9E3779B1+sw.hash;
+        h=h*0x9E3779B1+se.hash;
+        return h^h>>>15;
+    }
+}
@@ -0,0 +1,269 @@
+package headless;
+
+import automaton.JeuDeLaVie;
+import ensemble.EnsembleResult;
+import ensemble.EnsembleRunner;
+import ensemble.SimulationSpec;
+import engines.Engine;
+import engines.Engines;
+import grids.GridBits;
+import grids.Topology;
+import history.CycleDetector;
+import jdk.jfr.Recording;
+import metrics.FlightRecording;
+import metrics.GenerationMetrics;
+import visitors.Rule;
+import visitors.VisitorRule;
+
+import javax.management.JMException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs a simulation without any window, for batch jobs and throughput measurements.
+ * Options are given as name=value:
+ * size (WxH or a single side, 500), density (0.5), rule (classic, highlife, daynight or a rulestring, classic),
+ * seed (random if not given), generations (1000), engine (one of Engines.NAMES or hashlife, buffered),
+ * topology (plane, torus or klein, plane), load (snapshot file to start from, replacing size, density, rule,
+ * seed and topology), save (snapshot file written at the end), cycle (off, report or stop, off: report tells whether
+ * the grid became still or periodic, stop also ends the run as soon as it does), metrics (off, on or jmx, off:
+ * on prints the time spent in every phase of a generation, births, deaths and allocation; jmx also registers
+ * them as an MBean, to be watched with JConsole during long runs), jfr (file receiving a Flight Recorder recording of
+ * the run, with the events of every generation on top of the default events of the JVM), runs (number of
+ * simulations, 1: above 1, as many grids are calculated at once from seeds seed, seed+1... by an EnsembleRunner,
+ * which prints statistics over all of them), threads (number of simulations running at once, one per processor).
+ * Prints wall time, generations per second and final population.
+ */
+public class HeadlessRunner {
+    private static final int CYCLE_GENERATIONS=4096;
+
+    private int width=500,height=500;
+    private double density=0.5;
+    private Rule rule=Rule.CLASSIC;
+    private Long seed;
+    private long generations=1000;
+    private String engine="buffered";
+    private Topology topology=Topology.PLANE;
+    private Path load,save,jfr;
+    private String cycle="off";
+    private String metrics="off";
+    private int runs=1;
+    private int threads=Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Runs the simulation described by the options.
+     * @param args options, as name=value.
+     */
+    public static void main(String[] args){
+        HeadlessRunner runner=new HeadlessRunner();
+        try{
+            runner.parse(args);
+        }catch(IllegalArgumentException e){
+            System.err.println(e.getMessage());
+            System.err.println("Usage : size=WxH density=0.5 rule=B3/S23 seed=42 generations=1000 engine=buffered topology=plane load=in.gol save=out.gol cycle=stop metrics=on jfr=run.jfr runs=1000 threads=8");
+            System.exit(2);
+        }
+        try{
+            runner.run();
+        }catch(IOException e){
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads the options.
+     * @param args options, as name=value.
+     */
+    private void parse(String[] args){
+        for(String arg: args){
+            int eq=arg.indexOf('=');
+            if(eq<0){
+                throw new IllegalArgumentException("Invalid option : "+arg);
+            }
+            String name=arg.substring(0,eq), value=arg.substring(eq+1);
+            switch(name){
+                case "size":
+                    int x=value.indexOf('x');
+                    width=Integer.parseInt(x<0 ? value : value.substring(0,x));
+                    height=Integer.parseInt(x<0 ? value : value.substring(x+1));
+                    break;
+                case "density": density=Double.parseDouble(value); break;
+                case "rule": rule=rule(value); break;
+                case "seed": seed=Long.parseLong(value); break;
+                case "generations": generations=Long.parseLong(value); break;
+                case "engine": engine=value; break;
+                case "topology": topology=Topology.valueOf(value.toUpperCase()); break;
+                case "load": load=Path.of(value); break;
+                case "save": save=Path.of(value); break;
+                case "jfr": jfr=Path.of(value); break;
+                case "cycle": cycle=value; break;
+                case "metrics": metrics=value; break;
+                case "runs": runs=Integer.parseInt(value); break;
+                case "threads": threads=Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Unknown option : "+name);
+            }
+        }
+        if(!engine.equals("hashlife") && !Arrays.asList(Engines.NAMES).contains(engine)){
+            throw new IllegalArgumentException("Unknown engine : "+engine);
+        }
+        if(!Arrays.asList("off","report","stop").contains(cycle)){
+            throw new IllegalArgumentException("Unknown cycle option : "+cycle);
+        }
+        if(!Arrays.asList("off","on","jmx").contains(metrics)){
+            throw new IllegalArgumentException("Unknown metrics option : "+metrics);
+        }
+        if(engine.equals("hashlife") && !cycle.equals("off")){
+            throw new IllegalArgumentException("Cycles cannot be detected with hashlife, which skips generations");
+        }
+        if(runs>1 && (engine.equals("hashlife") || load!=null || save!=null || !metrics.equals("off"))){
+            throw new IllegalArgumentException("Several runs cannot use hashlife, load, save or metrics");
+        }
+    }
+
+    /**
+     * Returns the rule with given name or rulestring.
+     * @param name classic, highlife, daynight or a rulestring.
+     * @return the rule.
+     */
+    private static Rule rule(String name){
+        switch(name.toLowerCase()){
+            case "classic": return Rule.CLASSIC;
+            case "highlife": return Rule.HIGHLIFE;
+            case "daynight": return Rule.DAYNIGHT;
+            default: return Rule.parse(name);
+        }
+    }
+
+    /**
+     * Initializes or loads the grid, calculates all generations, prints the results and saves the grid if asked.
+     * @throws IOException if a snapshot cannot be read or written.
+     */
+    private void run() throws IOException {
+        if(runs>1){
+            runEnsemble();
+            return;
+        }
+        JeuDeLaVie game=new JeuDeLaVie();
+        game.setGrid(new GridBits(width,height));
+        if(load!=null){
+            game.loadSnapshot(load);
+            width=game.getXmax();
+            height=game.getYmax();
+            rule=game.getRule();
+            topology=game.getTopology();
+        }else{
+            game.setDensity(density);
+            if(seed!=null){
+                game.initializeGrid(seed);
+            }else{
+                game.initializeGrid();
+            }
+            game.setVisitor(new VisitorRule(game,rule));
+            game.setTopology(topology);
+        }
+        System.out.printf("%dx%d, density %s, rule %s, engine %s, topology %s, seed %d, initial population %d%n",
+                width,height,density,rule,engine,topology,game.getSeed(),game.livingCellCounter());
+
+        CycleDetector cycles=null;
+        if(!cycle.equals("off")){
+            cycles=new CycleDetector(CYCLE_GENERATIONS);
+            game.setCycleDetector(cycles);
+        }
+        boolean stop=cycle.equals("stop");
+
+        GenerationMetrics measures=null;
+        if(!metrics.equals("off")){
+            measures=new GenerationMetrics();
+            game.setMetrics(measures);
+            if(metrics.equals("jmx")){
+                try{
+                    measures.register("headless");
+                }catch(JMException e){
+                    System.err.println("Metrics not registered : "+e.getMessage());
+                }
+            }
+        }
+
+        Recording recording=jfr!=null ? FlightRecording.start(jfr) : null;
+        long start=System.nanoTime(), done=0;
+        if(engine.equals("hashlife")){
+            game.advance(generations);
+            done=generations;
+        }else{
+            Engine e=Engines.create(engine);
+            game.setEngine(e);
+            while(done<generations && !(stop && cycles.isCycling())){
+                game.calculateNextGen();
+                done++;
+            }
+            Engines.dispose(e);
+        }
+        double seconds=(System.nanoTime()-start)/1e9;
+        if(recording!=null){
+            recording.stop();
+            recording.close();
+        }
+
+        System.out.printf("Generations : %d%n",done);
+        System.out.printf("Wall time : %.3f s%n",seconds);
+        System.out.printf("Generations/sec : %.1f%n",done/seconds);
+        System.out.printf("Cells/sec : %.3e%n",(double)width*height*done/seconds);
+        System.out.printf("Final population : %d%n",game.livingCellCounter());
+        if(cycles!=null){
+            System.out.printf("Cycle : %s%n",cycles.describe());
+        }
+        if(measures!=null){
+            System.out.println(measures.snapshot());
+        }
+        if(engine.equals("hashlife")){
+            System.out.printf("Population of the whole universe : %d%n",game.getHashLife().getPopulation());
+        }
+        if(recording!=null){
+            System.out.printf("Flight recording written to %s%n",jfr);
+        }
+        if(save!=null){
+            game.saveSnapshot(save);
+            System.out.printf("Saved generation %d to %s%n",game.getGeneration(),save);
+        }
+    }
+
+    /**
+     * Runs several simulations at once, one per seed, and prints statistics over all of them.
+     * @throws IOException if the flight recording cannot be written.
+     */
+    private void runEnsemble() throws IOException {
+        long base=seed!=null ? seed : System.nanoTime();
+        SimulationSpec spec=new SimulationSpec().withSize(width,height).withDensity(density).withRule(rule)
+                .withTopology(topology).withEngine(engine).withGenerations(generations);
+        List<SimulationSpec> specs=new ArrayList<>(runs);
+        for(int i=0; i<runs; i++){
+            specs.add(spec.withSeed(base+i));
+        }
+        EnsembleRunner runner=new EnsembleRunner(threads,true);
+        runner.setCycleDetection(cycle.equals("off") ? 0 : CYCLE_GENERATIONS,cycle.equals("stop"));
+        System.out.printf("%d runs of %s, seeds from %d, %s%n",runs,spec.withSeed(base),base,runner.describe());
+
+        Recording recording=jfr!=null ? FlightRecording.start(jfr) : null;
+        EnsembleResult result;
+        try{
+            result=runner.run(specs);
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted");
+            return;
+        }finally{
+            if(recording!=null){
+                recording.stop();
+                recording.close();
+            }
+        }
+        System.out.println(result);
+        if(recording!=null){
+            System.out.printf("Flight recording written to %s%n",jfr);
+        }
+    }
+}
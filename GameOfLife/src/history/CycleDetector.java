@@ -0,0 +1,209 @@
+package history;
+
+import grids.Grid;
+import grids.GridBits;
+import grids.TileTracker;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Detects when a grid stops changing or starts repeating itself, by hashing every generation.
+ * The hash is Zobrist-style: every word of 64 cells gives a pseudo-random value depending on its position and content,
+ * and the hash of the grid is the XOR of these values, tile by tile. When a GridBits was calculated tile by tile,
+ * only the tiles that changed are hashed again, so the cost follows the activity of the grid rather than its size.
+ * Hashes are kept with the generation they were seen at, the oldest being forgotten after capacity generations:
+ * a hash seen again means the grid came back to that generation, p generations later.
+ * Two grids having the same 64-bit hash is assumed to never happen.
+ * @param capacity number of generations kept, and longest period that can be detected.
+ * @param seen generation at which every kept hash was seen.
+ * @param tileHashes hash of every tile of the last hashed grid.
+ * @param hash XOR of tileHashes.
+ * @param previous last hashed grid, if it is a GridBits.
+ * @param previousModifications modifications of previous when it was hashed.
+ * @param period period of the cycle the grid is in, 1 for a still grid, 0 if none was detected.
+ * @param cycleStart first generation of the cycle.
+ */
+public class CycleDetector {
+    private static final long GOLDEN=0x9E3779B97F4A7C15L;
+
+    private final int capacity;
+    private final Map<Long,Long> seen;
+    private long[] tileHashes;
+    private long hash;
+    private GridBits previous;
+    private long previousModifications;
+    private volatile int period;
+    private volatile long cycleStart;
+
+    /**
+     * Constructor for CycleDetector.
+     * @param capacity number of generations kept, and longest period that can be detected.
+     */
+    public CycleDetector(int capacity){
+        this.capacity=Math.max(1,capacity);
+        seen=new LinkedHashMap<>(){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long,Long> eldest){ return size()>CycleDetector.this.capacity; }
+        };
+    }
+
+    /**
+     * Forgets every generation seen. Called when the grid is modified other than by calculating a generation,
+     * since it could then come back to an earlier generation without being in a cycle.
+     */
+    public void reset(){
+        seen.clear();
+        previous=null;
+        tileHashes=null;
+        period=0;
+        cycleStart=0;
+    }
+
+    /**
+     * Hashes a new generation and checks if it was already seen. Called after every generation.
+     * @param grid the grid holding the generation.
+     * @param tiles the tile tracker of the game, telling which tiles changed if the generation was calculated tile by tile.
+     * @param generation number of the generation.
+     */
+    public void update(Grid grid, TileTracker tiles, long generation){
+        if(grid instanceof GridBits bits){
+            boolean incremental=previous!=null && previous.getModifications()==previousModifications
+                    && tiles.produced(previous,bits) && tileHashes.length==bits.getTilesX()*bits.getTilesY();
+            if(!incremental){
+                tileHashes=new long[bits.getTilesX()*bits.getTilesY()];
+                hash=0;
+            }
+            for(int ty=0; ty<bits.getTilesY(); ty++){
+                for(int tx=0; tx<bits.getTilesX(); tx++){
+                    if(!incremental || tiles.isChanged(tx,ty)){
+                        int i=ty*bits.getTilesX()+tx;
+                        long h=hashTile(bits,tx,ty);
+                        hash^=tileHashes[i]^h;
+                        tileHashes[i]=h;
+                    }
+                }
+            }
+            previous=bits;
+            previousModifications=bits.getModifications();
+        }else{
+            previous=null;
+            hash=hashCells(grid);
+        }
+        Long before=seen.put(hash,generation);
+        if(before!=null && before<generation){
+            if(period==0){
+                cycleStart=before;
+                period=(int)(generation-before);
+            }
+        }else if(before!=null){
+            reset();
+            seen.put(hash,generation);
+        }
+    }
+
+    /**
+     * Getter for hash.
+     * @return hash of the last generation.
+     */
+    public long getHash(){ return hash; }
+
+    /**
+     * Getter for period.
+     * @return number of generations after which the grid repeats itself, 1 if it does not change anymore, 0 if it was not detected.
+     */
+    public int getPeriod(){ return period; }
+
+    /**
+     * Getter for cycleStart.
+     * @return first generation of the cycle, meaningful when a period was detected.
+     */
+    public long getCycleStart(){ return cycleStart; }
+
+    /**
+     * Checks if the grid stopped changing.
+     * @return true if the period is 1.
+     */
+    public boolean isStill(){ return period==1; }
+
+    /**
+     * Checks if the grid repeats itself.
+     * @return true if a period was detected.
+     */
+    public boolean isCycling(){ return period>0; }
+
+    /**
+     * Returns a text telling whether the grid is still, periodic or neither.
+     * @return the state of the grid.
+     */
+    public String describe(){
+        int p=period;
+        if(p==0){
+            return "no cycle";
+        }
+        return (p==1 ? "still" : "period "+p)+" since generation "+cycleStart;
+    }
+
+    /**
+     * Hashes a tile of a GridBits, one word per row.
+     * @param bits the grid.
+     * @param tx column of the tile.
+     * @param ty row of the tile.
+     * @return hash of the tile, 0 if all its cells are dead.
+     */
+    private static long hashTile(GridBits bits, int tx, int ty){
+        long h=0;
+        int end=Math.min(bits.getHeight(),(ty+1)*GridBits.TILE_ROWS);
+        for(int y=ty*GridBits.TILE_ROWS; y<end; y++){
+            long word=bits.getWord(tx,y);
+            if(word!=0){
+                h^=hashWord((long)y*bits.getTilesX()+tx,word);
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Hashes a grid of any storage, reading it cell by cell into words. Gives the same hash as tiles of a GridBits.
+     * @param grid the grid.
+     * @return hash of the grid.
+     */
+    private static long hashCells(Grid grid){
+        long h=0;
+        int words=(grid.getWidth()+63)>>>6;
+        for(int y=0; y<grid.getHeight(); y++){
+            for(int w=0; w<words; w++){
+                long word=0;
+                int end=Math.min(64,grid.getWidth()-(w<<6));
+                for(int b=0; b<end; b++){
+                    if(grid.isAlive((w<<6)+b,y)){
+                        word|=1L<<b;
+                    }
+                }
+                if(word!=0){
+                    h^=hashWord((long)y*words+w,word);
+                }
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Zobrist value of a word: its content mixed with a pseudo-random key of its position.
+     * @param position index of the word in the grid, row by row.
+     * @param word the 64 cells.
+     * @return the value.
+     */
+    private static long hashWord(long position, long word){ return mix(mix(position*GOLDEN+GOLDEN)^word); }
+
+    /**
+     * Finalizer of SplitMix64, spreading every input bit over the whole result.
+     * @param z the value to mix.
+     * @return the mixed value.
+     */
+    private static long mix(long z){
+        z=(z^(z>>>30))*0xBF58476D1CE4E5B9L;
+        z=(z^(z>>>27))*0x94D049BB133111EBL;
+        return z^(z>>>31);
+    }
+}
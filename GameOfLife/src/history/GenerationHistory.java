@@ -0,0 +1,499 @@
+package history;
+
+import grids.Grid;
+import grids.GridBits;
+import grids.TileTracker;
+
+import java.util.Arrays;
+
+/**
+ * Bounded history of the generations of a grid, allowing to go back without calculating anything.
+ * Generations are kept in a ring buffer of entries. Most entries are deltas: the cells that flipped since the previous
+ * generation, stored as the gaps between their indices in variable-length bytes (7 bits per byte), or as the XOR of
+ * both generations packed 64 cells per word when that is smaller. Every keyframeInterval entries, the whole generation
+ * is stored instead, packed 64 cells per word. The interval is shortened for large grids, so that two keyframes with
+ * their deltas always fit in maxBytes.
+ * When the grid is a GridBits calculated tile by tile from the last recorded generation, only the tiles that changed
+ * are compared, so recording costs as much as the activity of the grid rather than its size.
+ * Going back either undoes the last deltas one by one, or starts from the closest keyframe before the target and replays
+ * the deltas that follow it, whichever reads fewer entries.
+ * When the entries take more than maxBytes, the oldest keyframe is dropped together with the deltas that follow it.
+ * @param maxBytes memory the entries are allowed to take.
+ * @param keyframeInterval number of entries between two keyframes asked for.
+ * @param interval number of entries between two keyframes for the recorded grid, at most keyframeInterval.
+ * @param width number of cells on X axis of the recorded grid.
+ * @param height number of cells on Y axis of the recorded grid.
+ * @param words number of words of a row.
+ * @param current last recorded generation, packed 64 cells per word, row by row.
+ * @param flips cells that flipped during the generation being recorded, as words of current.
+ * @param flipped indices in current of the words of flips, in increasing order.
+ * @param count number of words in flips.
+ * @param columns buffer receiving the columns of the changed tiles of a row of tiles.
+ * @param previous grid recorded last if it is a GridBits, null otherwise.
+ * @param previousModifications modifications of previous when it was recorded.
+ * @param row buffer receiving a row of the grid.
+ * @param gaps buffer receiving the encoded delta of the generation being recorded.
+ * @param entries the ring buffer.
+ * @param head index in entries of the oldest entry.
+ * @param size number of entries.
+ * @param bytes memory taken by the entries.
+ */
+public class GenerationHistory {
+    private static final int ENTRY_BYTES=32;
+
+    private final long maxBytes;
+    private final int keyframeInterval;
+    private int interval,width,height,words;
+    private long[] current,flips,row;
+    private int[] flipped,columns;
+    private int count;
+    private GridBits previous;
+    private long previousModifications;
+    private byte[] gaps;
+    private Entry[] entries;
+    private int head,size;
+    private long bytes;
+
+    /**
+     * Constructor for GenerationHistory. Nothing is recorded until reset is called.
+     * @param maxBytes memory the entries are allowed to take.
+     * @param keyframeInterval number of entries between two keyframes.
+     */
+    public GenerationHistory(long maxBytes, int keyframeInterval){
+        this.maxBytes=maxBytes;
+        this.keyframeInterval=Math.max(1,keyframeInterval);
+        entries=new Entry[16];
+        interval=this.keyframeInterval;
+        current=new long[0];
+        flips=new long[64];
+        flipped=new int[64];
+        columns=new int[0];
+        row=new long[0];
+        gaps=new byte[64];
+    }
+
+    /**
+     * Forgets all generations and records the current one of a grid as a keyframe.
+     * @param grid the grid.
+     * @param generation number of the generation held by the grid.
+     */
+    public void reset(Grid grid, long generation){
+        width=grid.getWidth();
+        height=grid.getHeight();
+        words=(width+63)>>>6;
+        current=new long[words*height];
+        row=new long[words];
+        columns=new int[words];
+        long entryBytes=ENTRY_BYTES+current.length*8L;
+        interval=(int)Math.max(1,Math.min(keyframeInterval,maxBytes/2/entryBytes));
+        Arrays.fill(entries,null);
+        head=0;
+        size=0;
+        bytes=0;
+        for(int y=0; y<height; y++){
+            readRow(grid,y,row);
+            System.arraycopy(row,0,current,y*words,words);
+        }
+        append(new Entry(generation,true,current.clone(),null));
+        remember(grid);
+    }
+
+    /**
+     * Records the current generation of a grid, as the cells that flipped since the last recorded one.
+     * Changes made to the grid between two generations are part of the delta. Resets the history if the grid
+     * has other dimensions than the recorded one.
+     * @param grid the grid.
+     * @param generation number of the generation held by the grid.
+     */
+    public void record(Grid grid, long generation){ record(grid,generation,null); }
+
+    /**
+     * Records the current generation of a grid, as the cells that flipped since the last recorded one.
+     * If the grid was calculated tile by tile from the last recorded generation, only the changed tiles are read.
+     * @param grid the grid.
+     * @param generation number of the generation held by the grid.
+     * @param tiles tiles that changed during the last generation, null to read the whole grid.
+     */
+    public void record(Grid grid, long generation, TileTracker tiles){
+        if(size==0 || grid.getWidth()!=width || grid.getHeight()!=height){
+            reset(grid,generation);
+            return;
+        }
+        count=0;
+        if(tiles!=null && grid instanceof GridBits bits && previous!=null && previous.getModifications()==previousModifications
+                && tiles.produced(previous,bits) && tiles.getTilesX()==words && tiles.getTilesY()==bits.getTilesY()){
+            flipTiles(bits,tiles);
+        }else{
+            flipRows(grid);
+        }
+        remember(grid);
+        if(sinceKeyframe()+1>=interval){
+            append(new Entry(generation,true,current.clone(),null));
+        }else{
+            int length=encode();
+            append(length<0 ? new Entry(generation,false,expand(),null)
+                            : new Entry(generation,false,null,Arrays.copyOf(gaps,length)));
+        }
+        evict();
+    }
+
+    /**
+     * Getter for interval.
+     * @return number of entries between two keyframes for the recorded grid.
+     */
+    public int getKeyframeInterval(){ return interval; }
+
+    /**
+     * Remembers the grid just recorded, so that the next generation can be read from its changed tiles only.
+     * @param grid the grid.
+     */
+    private void remember(Grid grid){
+        if(grid instanceof GridBits bits){
+            previous=bits;
+            previousModifications=bits.getModifications();
+        }else{
+            previous=null;
+        }
+    }
+
+    /**
+     * Reads every row of a grid into current, keeping the words that flipped.
+     * @param grid the grid.
+     */
+    private void flipRows(Grid grid){
+        for(int y=0; y<height; y++){
+            readRow(grid,y,row);
+            int offset=y*words;
+            for(int w=0; w<words; w++){
+                flip(offset+w,row[w]);
+            }
+        }
+    }
+
+    /**
+     * Reads the changed tiles of a grid into current, keeping the words that flipped. Words are visited row by row,
+     * so that they are kept in increasing order.
+     * @param bits the grid, calculated from the last recorded generation.
+     * @param tiles tiles that changed during the last generation. A tile is one word wide.
+     */
+    private void flipTiles(GridBits bits, TileTracker tiles){
+        for(int ty=0; ty<tiles.getTilesY(); ty++){
+            int n=0;
+            for(int tx=0; tx<words; tx++){
+                if(tiles.isChanged(tx,ty)){
+                    columns[n++]=tx;
+                }
+            }
+            if(n==0){
+                continue;
+            }
+            for(int y=ty*GridBits.TILE_ROWS; y<Math.min(height,(ty+1)*GridBits.TILE_ROWS); y++){
+                for(int i=0; i<n; i++){
+                    flip(y*words+columns[i],bits.getWord(columns[i],y));
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a word into current, and keeps the cells that flipped if any.
+     * @param i index of the word in current.
+     * @param word new value of the word.
+     */
+    private void flip(int i, long word){
+        long f=current[i]^word;
+        if(f==0){
+            return;
+        }
+        if(count==flips.length){
+            flips=Arrays.copyOf(flips,count*2);
+            flipped=Arrays.copyOf(flipped,count*2);
+        }
+        flips[count]=f;
+        flipped[count++]=i;
+        current[i]=word;
+    }
+
+    /**
+     * Returns the words that flipped at their place in a generation, the other words being 0.
+     * @return XOR of the last two recorded generations, packed like current.
+     */
+    private long[] expand(){
+        long[] xor=new long[current.length];
+        for(int i=0; i<count; i++){
+            xor[flipped[i]]=flips[i];
+        }
+        return xor;
+    }
+
+    /**
+     * Goes back a number of recorded generations and writes the generation reached into a grid.
+     * The generations after it are forgotten, calculating again records them again.
+     * @param n number of generations, stops at the oldest one kept.
+     * @param grid the grid, with the dimensions of the recorded one.
+     * @return number of the generation reached.
+     * @throws IllegalStateException if nothing was recorded.
+     */
+    public long stepBack(int n, Grid grid){
+        if(size==0){
+            throw new IllegalStateException("No generation recorded");
+        }
+        int target=Math.max(0,size-1-Math.max(0,n));
+        int keyframe=target;
+        while(!entry(keyframe).keyframe){
+            keyframe--;
+        }
+        boolean backward=true;
+        for(int i=target+1; i<size && backward; i++){
+            backward=!entry(i).keyframe;
+        }
+        if(backward && size-1-target<=target-keyframe){
+            for(int i=size-1; i>target; i--){
+                undo(entry(i));
+            }
+        }else{
+            System.arraycopy(entry(keyframe).words,0,current,0,current.length);
+            for(int i=keyframe+1; i<=target; i++){
+                undo(entry(i));
+            }
+        }
+        for(int i=target+1; i<size; i++){
+            bytes-=entry(i).bytes();
+            entries[(head+i)%entries.length]=null;
+        }
+        size=target+1;
+        writeTo(grid);
+        return entry(target).generation;
+    }
+
+    /**
+     * Returns number of generations that can be undone.
+     * @return 0 if only the current generation is recorded.
+     */
+    public int getDepth(){ return Math.max(0,size-1); }
+
+    /**
+     * Returns the oldest generation kept.
+     * @return number of the generation, or -1 if nothing was recorded.
+     */
+    public long getOldestGeneration(){ return size==0 ? -1 : entry(0).generation; }
+
+    /**
+     * Returns memory taken by the recorded generations.
+     * @return number of bytes, approximately.
+     */
+    public long getMemoryUsage(){ return bytes; }
+
+    /**
+     * Getter for maxBytes.
+     * @return memory the entries are allowed to take.
+     */
+    public long getMaxBytes(){ return maxBytes; }
+
+    /**
+     * Returns an entry from its position in the history.
+     * @param i position, 0 being the oldest entry.
+     * @return the entry.
+     */
+    private Entry entry(int i){ return entries[(head+i)%entries.length]; }
+
+    /**
+     * Returns number of entries recorded since the last keyframe.
+     * @return number of deltas after the last keyframe.
+     */
+    private int sinceKeyframe(){
+        int n=0;
+        while(n<size && !entry(size-1-n).keyframe){
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Adds an entry after the newest one, growing the ring buffer if it is full.
+     * @param e the entry.
+     */
+    private void append(Entry e){
+        if(size==entries.length){
+            Entry[] grown=new Entry[entries.length*2];
+            for(int i=0; i<size; i++){
+                grown[i]=entry(i);
+            }
+            entries=grown;
+            head=0;
+        }
+        entries[(head+size)%entries.length]=e;
+        size++;
+        bytes+=e.bytes();
+    }
+
+    /**
+     * Drops the oldest keyframes with their deltas while the entries take more than maxBytes.
+     * If the oldest keyframe is the only one, the newest entry becomes a keyframe so that the older ones can go.
+     * At least the newest generation is always kept.
+     */
+    private void evict(){
+        while(bytes>maxBytes && size>1){
+            int next=1;
+            while(next<size && !entry(next).keyframe){
+                next++;
+            }
+            if(next==size){
+                next=size-1;
+                Entry last=entry(next);
+                bytes-=last.bytes();
+                last=new Entry(last.generation,true,current.clone(),null);
+                entries[(head+next)%entries.length]=last;
+                bytes+=last.bytes();
+            }
+            for(int i=0; i<next; i++){
+                bytes-=entry(0).bytes();
+                entries[head]=null;
+                head=(head+1)%entries.length;
+                size--;
+            }
+        }
+    }
+
+    /**
+     * Encodes the flipped cells as gaps between their indices, 7 bits per byte, the high bit telling that more bytes follow.
+     * The index of a cell is 64 times the index of its word plus its bit.
+     * @return number of bytes written in gaps, or -1 if they would take more than the flips themselves.
+     */
+    private int encode(){
+        int length=0, limit=current.length*8;
+        long last=-1;
+        for(int k=0; k<count; k++){
+            long word=flips[k];
+            while(word!=0){
+                long index=((long)flipped[k]<<6)+Long.numberOfTrailingZeros(word);
+                word&=word-1;
+                long gap=index-last-1;
+                last=index;
+                do{
+                    if(length==limit){
+                        return -1;
+                    }
+                    if(length==gaps.length){
+                        gaps=Arrays.copyOf(gaps,Math.min(limit,gaps.length*2));
+                    }
+                    gaps[length++]=(byte)(gap>=0x80 ? gap&0x7F|0x80 : gap);
+                    gap>>>=7;
+                }while(gap!=0);
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Flips back into current the cells that flipped during a delta. Flipping is its own inverse,
+     * so the same method replays a delta forward.
+     * @param e the delta.
+     */
+    private void undo(Entry e){
+        if(e.words!=null){
+            for(int i=0; i<current.length; i++){
+                current[i]^=e.words[i];
+            }
+            return;
+        }
+        long index=-1;
+        int i=0;
+        while(i<e.gaps.length){
+            long gap=0;
+            int shift=0;
+            byte b;
+            do{
+                b=e.gaps[i++];
+                gap|=(long)(b&0x7F)<<shift;
+                shift+=7;
+            }while(b<0);
+            index+=gap+1;
+            current[(int)(index>>>6)]^=1L<<index;
+        }
+    }
+
+    /**
+     * Writes current into a grid. Only rows that differ are written, so that unchanged tiles of a GridBits stay inactive.
+     * @param grid the grid.
+     */
+    private void writeTo(Grid grid){
+        for(int y=0; y<height; y++){
+            readRow(grid,y,row);
+            int offset=y*words;
+            boolean same=true;
+            for(int w=0; w<words && same; w++){
+                same=row[w]==current[offset+w];
+            }
+            if(same){
+                continue;
+            }
+            if(grid instanceof GridBits bits){
+                System.arraycopy(current,offset,row,0,words);
+                bits.setRow(y,row);
+            }else{
+                for(int x=0; x<width; x++){
+                    if((current[offset+(x>>>6)]>>>x&1L)!=0){
+                        grid.live(x,y);
+                    }else{
+                        grid.die(x,y);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a row of a grid, 64 cells per word.
+     * @param grid the grid.
+     * @param y coordinate on Y axis.
+     * @param into array of words receiving the row.
+     */
+    private void readRow(Grid grid, int y, long[] into){
+        if(grid instanceof GridBits bits){
+            bits.getRow(y,into);
+            return;
+        }
+        Arrays.fill(into,0L);
+        for(int x=0; x<width; x++){
+            if(grid.isAlive(x,y)){
+                into[x>>>6]|=1L<<x;
+            }
+        }
+    }
+
+    /**
+     * Recorded generation. A keyframe holds the whole generation in words, a delta holds either the encoded gaps
+     * or the XOR with the previous generation in words.
+     * @param generation number of the generation.
+     * @param keyframe true if words holds the whole generation.
+     * @param words cells packed 64 per word, or null.
+     * @param gaps encoded indices of the flipped cells, or null.
+     */
+    private static class Entry {
+        final long generation;
+        final boolean keyframe;
+        final long[] words;
+        final byte[] gaps;
+
+        /**
+         * Constructor for Entry.
+         * @param generation number of the generation.
+         * @param keyframe true if words holds the whole generation.
+         * @param words cells packed 64 per word, or null.
+         * @param gaps encoded indices of the flipped cells, or null.
+         */
+        Entry(long generation, boolean keyframe, long[] words, byte[] gaps){
+            this.generation=generation;
+            this.keyframe=keyframe;
+            this.words=words;
+            this.gaps=gaps;
+        }
+
+        /**
+         * Returns memory taken by the entry.
+         * @return number of bytes, approximately.
+         */
+        long bytes(){ return ENTRY_BYTES+(words!=null ? words.length*8L : gaps.length); }
+    }
+}
@@ -0,0 +1,49 @@
+package metrics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+
+/**
+ * Starts Flight Recorder recordings with the events of the game enabled, on top of the default settings of the JVM
+ * (garbage collections, safepoints, CPU load...), so that generations can be lined up with them in JDK Mission Control.
+ * The events can also be enabled on a recording started with -XX:StartFlightRecording, by their names in a .jfc file.
+ * @param EVENTS events of the game, all disabled by default.
+ */
+public class FlightRecording {
+    public static final List<Class<? extends Event>> EVENTS=
+            List.of(GenerationEvent.class,PatternLoadEvent.class,NotificationEvent.class,RepaintEvent.class);
+
+    /**
+     * Private constructor, the class only has static methods.
+     */
+    private FlightRecording(){}
+
+    /**
+     * Starts a recording with the default settings and the events of the game.
+     * The recording is written to the file when it is stopped, it must then be closed.
+     * @param destination file receiving the recording.
+     * @return the recording, started.
+     * @throws IOException if the default settings or the file cannot be opened.
+     */
+    public static Recording start(Path destination) throws IOException {
+        Recording recording;
+        try{
+            recording=new Recording(Configuration.getConfiguration("default"));
+        }catch(ParseException e){
+            throw new IOException("Default settings of Flight Recorder cannot be read",e);
+        }
+        for(Class<? extends Event> event: EVENTS){
+            recording.enable(event);
+        }
+        recording.setName("Game of Life");
+        recording.setDestination(destination);
+        recording.start();
+        return recording;
+    }
+}
@@ -0,0 +1,49 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a generation calculated by calculateNextGens, from compute to cycle detection.
+ * Disabled by default: begin, end and commit do nothing until a recording enables it.
+ * @param generation number of the generation.
+ * @param width width of the grid.
+ * @param height height of the grid.
+ * @param rule rule of the game, as a rulestring.
+ * @param engine class of the engine.
+ * @param births number of cells born.
+ * @param deaths number of cells that died.
+ */
+@Name("gameoflife.Generation")
+@Label("Generation")
+@Category("Game of Life")
+@Description("Calculation of a generation")
+@Enabled(false)
+@StackTrace(false)
+public class GenerationEvent extends Event {
+    @Label("Generation")
+    public long generation;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Rule")
+    public String rule;
+
+    @Label("Engine")
+    public String engine;
+
+    @Label("Births")
+    public long births;
+
+    @Label("Deaths")
+    public long deaths;
+}
@@ -0,0 +1,289 @@
+package metrics;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Implementation of Metrics keeping totals and last values, readable at any time with snapshot or through JMX.
+ * Generations are measured on the simulation thread and frames on the render thread: times of phases are kept in
+ * atomic arrays, other values are written by the simulation thread only and published through volatile fields.
+ * Allocation is measured with the allocated bytes counter of the current thread, when the JVM provides it.
+ * The rate of generations is calculated over the last WINDOW generations, and falls to 0 when no generation
+ * ended during the last second.
+ * @param THREADS thread bean measuring allocation, null if the JVM cannot.
+ * @param totalNanos time spent in every phase, indexed by ordinal.
+ * @param lastNanos time spent in every phase the last time it ran.
+ * @param counts number of times every phase ran.
+ * @param ends end time of the last WINDOW generations, as a ring.
+ * @param generations number of generations measured.
+ * @param allocationStart bytes allocated by the simulation thread when the current generation started.
+ * @param name name under which the bean is registered, null if it is not.
+ */
+public class GenerationMetrics implements Metrics, GenerationMetricsMBean {
+    private static final int WINDOW=256;
+    private static final long STALE_NANOS=1_000_000_000L;
+    private static final com.sun.management.ThreadMXBean THREADS=threads();
+
+    private final AtomicLongArray totalNanos,lastNanos,counts;
+    private final long[] ends;
+    private volatile long generations;
+    private volatile long births,deaths,totalBirths,totalDeaths;
+    private volatile long allocated,totalAllocated;
+    private volatile double generationsPerSecond;
+    private long allocationStart;
+    private ObjectName name;
+
+    /**
+     * Constructor for GenerationMetrics.
+     */
+    public GenerationMetrics(){
+        int phases=Phase.values().length;
+        totalNanos=new AtomicLongArray(phases);
+        lastNanos=new AtomicLongArray(phases);
+        counts=new AtomicLongArray(phases);
+        ends=new long[WINDOW];
+        if(THREADS==null){
+            allocated=totalAllocated=-1;
+        }
+    }
+
+    /**
+     * Returns the thread bean if it can measure allocation, enabling it if needed.
+     * @return the bean, or null.
+     */
+    private static com.sun.management.ThreadMXBean threads(){
+        if(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean t && t.isThreadAllocatedMemorySupported()){
+            if(!t.isThreadAllocatedMemoryEnabled()){
+                t.setThreadAllocatedMemoryEnabled(true);
+            }
+            return t;
+        }
+        return null;
+    }
+
+    /**
+     * Registers this object in the platform MBean server, as GameOfLife:type=GenerationMetrics,name=name.
+     * @param name name of the game, telling several games apart.
+     * @throws JMException if the name is invalid or already taken.
+     */
+    public synchronized void register(String name) throws JMException {
+        unregister();
+        ObjectName n=new ObjectName("GameOfLife:type=GenerationMetrics,name="+ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this,n);
+        this.name=n;
+    }
+
+    /**
+     * Removes this object from the platform MBean server, if it was registered.
+     * @throws JMException if it cannot be removed.
+     */
+    public synchronized void unregister() throws JMException {
+        if(name!=null){
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            name=null;
+        }
+    }
+
+    /**
+     * Checks if anything is measured.
+     * @return true.
+     */
+    @Override
+    public boolean isEnabled(){ return true; }
+
+    /**
+     * Returns a timestamp for a phase about to start.
+     * @return current time in nanoseconds.
+     */
+    @Override
+    public long start(){ return System.nanoTime(); }
+
+    /**
+     * Starts a generation and reads the allocation counter of the thread.
+     * @return current time in nanoseconds.
+     */
+    @Override
+    public long beginGeneration(){
+        if(THREADS!=null){
+            allocationStart=THREADS.getCurrentThreadAllocatedBytes();
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Ends a phase.
+     * @param phase the phase.
+     * @param start timestamp returned when the phase started.
+     * @return current time in nanoseconds.
+     */
+    @Override
+    public long end(Phase phase, long start){
+        long now=System.nanoTime();
+        record(phase,now-start);
+        return now;
+    }
+
+    /**
+     * Adds a phase timed by the caller.
+     * @param phase the phase.
+     * @param nanos its duration.
+     */
+    @Override
+    public void record(Phase phase, long nanos){
+        int i=phase.ordinal();
+        totalNanos.addAndGet(i,nanos);
+        lastNanos.set(i,nanos);
+        counts.incrementAndGet(i);
+    }
+
+    /**
+     * Ends a generation: counts it with its births, deaths and allocated bytes, and updates the rate.
+     * @param births number of cells born during the generation.
+     * @param deaths number of cells that died during the generation.
+     */
+    @Override
+    public void endGeneration(long births, long deaths){
+        if(THREADS!=null){
+            long bytes=THREADS.getCurrentThreadAllocatedBytes()-allocationStart;
+            allocated=bytes;
+            totalAllocated+=bytes;
+        }
+        this.births=births;
+        this.deaths=deaths;
+        totalBirths+=births;
+        totalDeaths+=deaths;
+
+        long now=System.nanoTime(), n=generations;
+        int window=(int)Math.min(n,WINDOW);
+        long oldest=ends[(int)((n-window)%WINDOW)];
+        ends[(int)(n%WINDOW)]=now;
+        generationsPerSecond=window==0 || now==oldest ? 0 : window*1e9/(now-oldest);
+        generations=n+1;
+    }
+
+    /**
+     * Returns the measures taken so far. Values of a generation being measured may be partly included.
+     * @return the measures.
+     */
+    @Override
+    public MetricsSnapshot snapshot(){
+        int phases=Phase.values().length;
+        long[] total=new long[phases], last=new long[phases], count=new long[phases];
+        for(int i=0; i<phases; i++){
+            total[i]=totalNanos.get(i);
+            last[i]=lastNanos.get(i);
+            count[i]=counts.get(i);
+        }
+        return new MetricsSnapshot(generations,total,last,count,births,deaths,totalBirths,totalDeaths,
+                allocated,totalAllocated,getGenerationsPerSecond());
+    }
+
+    /**
+     * Forgets all measures. Meant to be called between runs: a generation being measured may be partly kept.
+     */
+    @Override
+    public void reset(){
+        for(int i=0; i<Phase.values().length; i++){
+            totalNanos.set(i,0);
+            lastNanos.set(i,0);
+            counts.set(i,0);
+        }
+        generations=0;
+        births=deaths=totalBirths=totalDeaths=0;
+        if(THREADS!=null){
+            allocated=totalAllocated=0;
+        }
+        generationsPerSecond=0;
+    }
+
+    /**
+     * Getter for generations.
+     * @return number of generations measured.
+     */
+    @Override
+    public long getGenerations(){ return generations; }
+
+    /**
+     * Returns the rate of the last generations, 0 if none ended during the last second.
+     * @return generations per second.
+     */
+    @Override
+    public double getGenerationsPerSecond(){
+        long n=generations;
+        if(n==0 || System.nanoTime()-ends[(int)((n-1)%WINDOW)]>STALE_NANOS){
+            return 0;
+        }
+        return generationsPerSecond;
+    }
+
+    /**
+     * Returns the mean time of a phase.
+     * @param phase the phase.
+     * @return milliseconds, 0 if it never ran.
+     */
+    private double mean(Phase phase){
+        long n=counts.get(phase.ordinal());
+        return n==0 ? 0 : totalNanos.get(phase.ordinal())/1e6/n;
+    }
+
+    /**
+     * Returns the mean time of the COMPUTE phase.
+     * @return milliseconds.
+     */
+    @Override
+    public double getComputeMillis(){ return mean(Phase.COMPUTE); }
+
+    /**
+     * Returns the mean time of the APPLY phase.
+     * @return milliseconds.
+     */
+    @Override
+    public double getApplyMillis(){ return mean(Phase.APPLY); }
+
+    /**
+     * Returns the mean time of the RECORD phase.
+     * @return milliseconds.
+     */
+    @Override
+    public double getRecordMillis(){ return mean(Phase.RECORD); }
+
+    /**
+     * Returns the mean time of the NOTIFY phase.
+     * @return milliseconds.
+     */
+    @Override
+    public double getNotifyMillis(){ return mean(Phase.NOTIFY); }
+
+    /**
+     * Returns the mean time of the RENDER phase.
+     * @return milliseconds.
+     */
+    @Override
+    public double getRenderMillis(){ return mean(Phase.RENDER); }
+
+    /**
+     * Getter for births.
+     * @return number of cells born during the last generation.
+     */
+    @Override
+    public long getBirths(){ return births; }
+
+    /**
+     * Getter for deaths.
+     * @return number of cells that died during the last generation.
+     */
+    @Override
+    public long getDeaths(){ return deaths; }
+
+    /**
+     * Returns the mean number of bytes allocated per generation.
+     * @return bytes, -1 if the JVM cannot measure it.
+     */
+    @Override
+    public double getAllocatedBytesPerGeneration(){
+        long n=generations, total=totalAllocated;
+        return total<0 ? -1 : n==0 ? 0 : (double)total/n;
+    }
+}
@@ -0,0 +1,73 @@
+package metrics;
+
+/**
+ * Management interface of GenerationMetrics, shown by JMX clients such as JConsole or VisualVM.
+ * Times are means in milliseconds.
+ */
+public interface GenerationMetricsMBean {
+
+    /**
+     * Returns the number of generations measured.
+     * @return number of generations.
+     */
+    public long getGenerations();
+
+    /**
+     * Returns the rate of the last generations.
+     * @return generations per second.
+     */
+    public double getGenerationsPerSecond();
+
+    /**
+     * Returns the mean time of the COMPUTE phase.
+     * @return milliseconds.
+     */
+    public double getComputeMillis();
+
+    /**
+     * Returns the mean time of the APPLY phase.
+     * @return milliseconds.
+     */
+    public double getApplyMillis();
+
+    /**
+     * Returns the mean time of the RECORD phase.
+     * @return milliseconds.
+     */
+    public double getRecordMillis();
+
+    /**
+     * Returns the mean time of the NOTIFY phase.
+     * @return milliseconds.
+     */
+    public double getNotifyMillis();
+
+    /**
+     * Returns the mean time of the RENDER phase.
+     * @return milliseconds.
+     */
+    public double getRenderMillis();
+
+    /**
+     * Returns the number of births of the last generation.
+     * @return number of cells born.
+     */
+    public long getBirths();
+
+    /**
+     * Returns the number of deaths of the last generation.
+     * @return number of cells that died.
+     */
+    public long getDeaths();
+
+    /**
+     * Returns the mean number of bytes allocated per generation.
+     * @return bytes, -1 if the JVM cannot measure it.
+     */
+    public double getAllocatedBytesPerGeneration();
+
+    /**
+     * Forgets all measures.
+     */
+    public void reset();
+}
@@ -0,0 +1,57 @@
+package metrics;
+
+/**
+ * Instrumentation of the generations of a game: time spent in every phase, births and deaths,
+ * bytes allocated and rate of generations. Called by the game on the simulation thread, and by the renderer for RENDER.
+ * Timestamps are given back to the caller, so that consecutive phases are timed with one clock read each.
+ * NONE does nothing and reads no clock, so that a game without metrics costs nothing more.
+ */
+public interface Metrics {
+    public static final Metrics NONE=new NoMetrics();
+
+    /**
+     * Checks if anything is measured.
+     * @return false for NONE.
+     */
+    public boolean isEnabled();
+
+    /**
+     * Returns a timestamp for a phase about to start.
+     * @return current time in nanoseconds, 0 if nothing is measured.
+     */
+    public long start();
+
+    /**
+     * Starts a generation: allocation is measured on the calling thread from now on.
+     * @return current time in nanoseconds, 0 if nothing is measured.
+     */
+    public long beginGeneration();
+
+    /**
+     * Ends a phase.
+     * @param phase the phase.
+     * @param start timestamp returned when the phase started.
+     * @return current time in nanoseconds, start of the next phase, 0 if nothing is measured.
+     */
+    public long end(Phase phase, long start);
+
+    /**
+     * Adds a phase timed by the caller.
+     * @param phase the phase.
+     * @param nanos its duration.
+     */
+    public void record(Phase phase, long nanos);
+
+    /**
+     * Ends a generation started by beginGeneration.
+     * @param births number of cells born during the generation.
+     * @param deaths number of cells that died during the generation.
+     */
+    public void endGeneration(long births, long deaths);
+
+    /**
+     * Returns the measures taken so far, for the caller to read at its own pace.
+     * @return the measures, all zero if nothing is measured.
+     */
+    public MetricsSnapshot snapshot();
+}
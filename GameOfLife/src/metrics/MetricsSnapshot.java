@@ -0,0 +1,139 @@
+package metrics;
+
+/**
+ * Measures of Metrics at a given time. Immutable, so it can be read on any thread.
+ * @param generations number of generations measured.
+ * @param totalNanos time spent in every phase, indexed by ordinal.
+ * @param lastNanos time spent in every phase the last time it ran.
+ * @param counts number of times every phase ran: once per generation, except NOTIFY (once per batch) and RENDER (once per frame).
+ * @param births number of cells born during the last generation.
+ * @param deaths number of cells that died during the last generation.
+ * @param totalBirths number of cells born during all generations.
+ * @param totalDeaths number of cells that died during all generations.
+ * @param allocated bytes allocated during the last generation, -1 if the JVM cannot measure it.
+ * @param totalAllocated bytes allocated during all generations, -1 if the JVM cannot measure it.
+ * @param generationsPerSecond rate of the last generations.
+ */
+public class MetricsSnapshot {
+    private final long generations;
+    private final long[] totalNanos,lastNanos,counts;
+    private final long births,deaths,totalBirths,totalDeaths;
+    private final long allocated,totalAllocated;
+    private final double generationsPerSecond;
+
+    /**
+     * Constructor for MetricsSnapshot. Arrays are kept, not copied.
+     */
+    MetricsSnapshot(long generations, long[] totalNanos, long[] lastNanos, long[] counts, long births, long deaths,
+                    long totalBirths, long totalDeaths, long allocated, long totalAllocated, double generationsPerSecond){
+        this.generations=generations;
+        this.totalNanos=totalNanos;
+        this.lastNanos=lastNanos;
+        this.counts=counts;
+        this.births=births;
+        this.deaths=deaths;
+        this.totalBirths=totalBirths;
+        this.totalDeaths=totalDeaths;
+        this.allocated=allocated;
+        this.totalAllocated=totalAllocated;
+        this.generationsPerSecond=generationsPerSecond;
+    }
+
+    /**
+     * Getter for generations.
+     * @return number of generations measured.
+     */
+    public long getGenerations(){ return generations; }
+
+    /**
+     * Returns the time spent in a phase during all generations.
+     * @param phase the phase.
+     * @return time in nanoseconds.
+     */
+    public long getTotalNanos(Phase phase){ return totalNanos[phase.ordinal()]; }
+
+    /**
+     * Returns the time spent in a phase the last time it ran.
+     * @param phase the phase.
+     * @return time in nanoseconds.
+     */
+    public long getLastNanos(Phase phase){ return lastNanos[phase.ordinal()]; }
+
+    /**
+     * Returns the mean time spent in a phase.
+     * @param phase the phase.
+     * @return time in milliseconds, 0 if it never ran.
+     */
+    public double getMeanMillis(Phase phase){
+        long n=counts[phase.ordinal()];
+        return n==0 ? 0 : totalNanos[phase.ordinal()]/1e6/n;
+    }
+
+    /**
+     * Returns the number of times a phase ran.
+     * @param phase the phase.
+     * @return once per generation, except NOTIFY (once per batch) and RENDER (once per frame).
+     */
+    public long getCount(Phase phase){ return counts[phase.ordinal()]; }
+
+    /**
+     * Getter for births.
+     * @return number of cells born during the last generation.
+     */
+    public long getBirths(){ return births; }
+
+    /**
+     * Getter for deaths.
+     * @return number of cells that died during the last generation.
+     */
+    public long getDeaths(){ return deaths; }
+
+    /**
+     * Getter for totalBirths.
+     * @return number of cells born during all generations.
+     */
+    public long getTotalBirths(){ return totalBirths; }
+
+    /**
+     * Getter for totalDeaths.
+     * @return number of cells that died during all generations.
+     */
+    public long getTotalDeaths(){ return totalDeaths; }
+
+    /**
+     * Getter for allocated.
+     * @return bytes allocated during the last generation, -1 if the JVM cannot measure it.
+     */
+    public long getAllocated(){ return allocated; }
+
+    /**
+     * Returns the mean number of bytes allocated per generation.
+     * @return bytes, -1 if the JVM cannot measure it.
+     */
+    public double getAllocatedPerGeneration(){
+        return totalAllocated<0 ? -1 : generations==0 ? 0 : (double)totalAllocated/generations;
+    }
+
+    /**
+     * Getter for generationsPerSecond.
+     * @return rate of the last generations, 0 if none was calculated during the last second.
+     */
+    public double getGenerationsPerSecond(){ return generationsPerSecond; }
+
+    /**
+     * Describes the measures, one line per phase, then births, deaths, allocation and rate.
+     * @return the description.
+     */
+    @Override
+    public String toString(){
+        StringBuilder s=new StringBuilder();
+        for(Phase p: Phase.values()){
+            s.append(String.format("%-8s : %.4f ms mean, %.4f ms last, %d times%n",p.name().toLowerCase(),
+                    getMeanMillis(p),getLastNanos(p)/1e6,getCount(p)));
+        }
+        s.append(String.format("Births/deaths : %d/%d last, %d/%d total%n",births,deaths,totalBirths,totalDeaths));
+        s.append(String.format("Allocated : %.1f B/generation%n",getAllocatedPerGeneration()));
+        s.append(String.format("Generations/sec : %.1f",generationsPerSecond));
+        return s.toString();
+    }
+}
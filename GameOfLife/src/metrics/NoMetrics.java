@@ -0,0 +1,57 @@
+package metrics;
+
+/**
+ * Implementation of Metrics measuring nothing, used as Metrics.NONE.
+ * Every method is empty, so calls are removed once inlined by the JIT.
+ */
+final class NoMetrics implements Metrics {
+    private static final MetricsSnapshot EMPTY=new MetricsSnapshot(0,new long[Phase.values().length],
+            new long[Phase.values().length],new long[Phase.values().length],0,0,0,0,0,0,0);
+
+    /**
+     * Checks if anything is measured.
+     * @return false.
+     */
+    @Override
+    public boolean isEnabled(){ return false; }
+
+    /**
+     * Does not read the clock.
+     * @return 0.
+     */
+    @Override
+    public long start(){ return 0L; }
+
+    /**
+     * Does not read the clock.
+     * @return 0.
+     */
+    @Override
+    public long beginGeneration(){ return 0L; }
+
+    /**
+     * Does nothing.
+     * @return 0.
+     */
+    @Override
+    public long end(Phase phase, long start){ return 0L; }
+
+    /**
+     * Does nothing.
+     */
+    @Override
+    public void record(Phase phase, long nanos){}
+
+    /**
+     * Does nothing.
+     */
+    @Override
+    public void endGeneration(long births, long deaths){}
+
+    /**
+     * Returns empty measures.
+     * @return measures all zero.
+     */
+    @Override
+    public MetricsSnapshot snapshot(){ return EMPTY; }
+}
@@ -0,0 +1,29 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of the observers of a game being notified of a generation, on the simulation thread.
+ * Disabled by default.
+ * @param generation number of the generation.
+ * @param observers number of observers notified on the simulation thread.
+ */
+@Name("gameoflife.Notification")
+@Label("Observer Notification")
+@Category("Game of Life")
+@Description("Observers notified of a generation")
+@Enabled(false)
+@StackTrace(false)
+public class NotificationEvent extends Event {
+    @Label("Generation")
+    public long generation;
+
+    @Label("Observers")
+    public int observers;
+}
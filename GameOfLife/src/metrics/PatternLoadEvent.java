@@ -0,0 +1,37 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a pattern of the library loaded into the grid, reading of the library included.
+ * Disabled by default.
+ * @param pattern name of the pattern.
+ * @param width width of the pattern.
+ * @param height height of the pattern.
+ * @param cells number of living cells of the pattern.
+ */
+@Name("gameoflife.PatternLoad")
+@Label("Pattern Load")
+@Category("Game of Life")
+@Description("Pattern of the library written into the grid")
+@Enabled(false)
+@StackTrace(false)
+public class PatternLoadEvent extends Event {
+    @Label("Pattern")
+    public String pattern;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Living Cells")
+    public int cells;
+}
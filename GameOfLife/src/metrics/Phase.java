@@ -0,0 +1,13 @@
+package metrics;
+
+/**
+ * Phases of a generation, timed by Metrics.
+ * COMPUTE: the engine calculates next generation (visitors, or the kernel of the engine).
+ * APPLY: the engine makes it the current one (commands, or swap of the grids).
+ * RECORD: the generation is recorded in the history and hashed by the cycle detector.
+ * NOTIFY: observers are notified, once per batch of generations.
+ * RENDER: the renderer draws a frame into its image, on its own thread.
+ */
+public enum Phase {
+    COMPUTE,APPLY,RECORD,NOTIFY,RENDER
+}
@@ -0,0 +1,37 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of the panel of the grid being painted, on the event dispatch thread.
+ * Disabled by default.
+ * @param width width of the grid, in cells.
+ * @param height height of the grid, in cells.
+ * @param cellSize size of a cell, in pixels.
+ * @param zoom zoom of the panel.
+ */
+@Name("gameoflife.Repaint")
+@Label("Grid Repaint")
+@Category("Game of Life")
+@Description("Painting of the panel showing the grid")
+@Enabled(false)
+@StackTrace(false)
+public class RepaintEvent extends Event {
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Cell Size")
+    public int cellSize;
+
+    @Label("Zoom")
+    public double zoom;
+}
@@ -0,0 +1,80 @@
+package patterns;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Plaintext format (.cells). Lines starting with '!' are comments, "!Name: " giving the name of the pattern.
+ * Other lines are rows of cells, 'O' being a living cell and '.' a dead one.
+ */
+public class FormatCells implements PatternFormat {
+    private static final String NAME="!Name:";
+
+    /**
+     * Reads a pattern until the end of the stream.
+     * @param in the stream.
+     * @param name name of the pattern if the file does not give one.
+     * @return the pattern.
+     * @throws IOException if the stream cannot be read or holds unknown characters.
+     */
+    @Override
+    public Pattern read(Reader in, String name) throws IOException {
+        PatternBuilder builder=new PatternBuilder();
+        StringBuilder comment=new StringBuilder();
+        int x=0, y=0, width=0, c;
+        boolean lineStart=true, inComment=false;
+        while((c=in.read())!=-1){
+            if(inComment){
+                if(c=='\n'){
+                    String line=comment.toString().trim();
+                    if(line.startsWith(NAME)){
+                        name=nameOf(line);
+                    }
+                    comment.setLength(0);
+                    inComment=false;
+                    lineStart=true;
+                }else{
+                    comment.append((char)c);
+                }
+            }else if(lineStart && c=='!'){
+                comment.append('!');
+                inComment=true;
+                lineStart=false;
+            }else if(c=='\n'){
+                width=Math.max(width,x);
+                x=0;
+                y++;
+                lineStart=true;
+            }else if(c=='O' || c=='o' || c=='*'){
+                builder.live(x++,y);
+                lineStart=false;
+            }else if(c=='.'){
+                x++;
+                lineStart=false;
+            }else if(c!='\r' && c!=' ' && c!='\t'){
+                throw new IOException("Unexpected character '"+(char)c+"' in pattern "+name);
+            }
+        }
+        if(!lineStart){
+            width=Math.max(width,x);
+            y++;
+        }
+        return builder.build(name,width,y);
+    }
+
+    /**
+     * Checks if a line is a name comment.
+     * @param line the line.
+     * @return true if it starts a new pattern.
+     */
+    @Override
+    public boolean startsPattern(String line){ return line.startsWith(NAME); }
+
+    /**
+     * Returns the name given by a name comment.
+     * @param line the line.
+     * @return the name.
+     */
+    @Override
+    public String nameOf(String line){ return line.substring(NAME.length()).trim(); }
+}
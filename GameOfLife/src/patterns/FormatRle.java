@@ -0,0 +1,92 @@
+package patterns;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Run length encoded format (.rle). Lines starting with '#' are comments, "#N" giving the name of the pattern.
+ * The header "x = width, y = height, rule = ..." is followed by runs: a count then 'b' for dead cells,
+ * 'o' (or any other letter) for living cells, or '$' for the end of a row. '!' ends the pattern.
+ */
+public class FormatRle implements PatternFormat {
+
+    /**
+     * Reads a pattern until its '!' or the end of the stream.
+     * @param in the stream.
+     * @param name name of the pattern if the file does not give one.
+     * @return the pattern.
+     * @throws IOException if the stream cannot be read or holds unknown characters.
+     */
+    @Override
+    public Pattern read(Reader in, String name) throws IOException {
+        PatternBuilder builder=new PatternBuilder();
+        int width=0, height=0, x=0, y=0, count=0, c;
+        boolean header=false;
+        while((c=in.read())!=-1 && c!='!'){
+            if(!header && (c=='#' || c=='x')){
+                String line=(char)c+readLine(in);
+                if(line.startsWith("#N")){
+                    name=line.substring(2).trim();
+                }else if(c=='x'){
+                    header=true;
+                    for(String part: line.split(",")){
+                        String[] kv=part.split("=");
+                        if(kv.length==2 && kv[0].trim().equals("x")){
+                            width=Integer.parseInt(kv[1].trim());
+                        }else if(kv.length==2 && kv[0].trim().equals("y")){
+                            height=Integer.parseInt(kv[1].trim());
+                        }
+                    }
+                }
+            }else if(c>='0' && c<='9'){
+                count=count*10+(c-'0');
+            }else if(c=='$'){
+                y+=Math.max(1,count);
+                x=0;
+                count=0;
+            }else if(c=='b' || c=='.'){
+                x+=Math.max(1,count);
+                count=0;
+            }else if(Character.isLetter(c)){
+                for(int i=Math.max(1,count); i>0; i--){
+                    builder.live(x++,y);
+                }
+                count=0;
+            }else if(!Character.isWhitespace(c)){
+                throw new IOException("Unexpected character '"+(char)c+"' in pattern "+name);
+            }
+        }
+        return builder.build(name,width,Math.max(height,y+(x>0 ? 1 : 0)));
+    }
+
+    /**
+     * Reads the rest of a line.
+     * @param in the stream.
+     * @return the characters before the end of the line.
+     * @throws IOException if the stream cannot be read.
+     */
+    private static String readLine(Reader in) throws IOException {
+        StringBuilder line=new StringBuilder();
+        int c;
+        while((c=in.read())!=-1 && c!='\n'){
+            line.append((char)c);
+        }
+        return line.toString().trim();
+    }
+
+    /**
+     * Checks if a line is a name comment.
+     * @param line the line.
+     * @return true if it starts a new pattern.
+     */
+    @Override
+    public boolean startsPattern(String line){ return line.startsWith("#N"); }
+
+    /**
+     * Returns the name given by a name comment.
+     * @param line the line.
+     * @return the name.
+     */
+    @Override
+    public String nameOf(String line){ return line.substring(2).trim(); }
+}
@@ -0,0 +1,88 @@
+package patterns;
+
+import grids.Grid;
+
+/**
+ * Immutable pattern read from a pattern file. Cells are packed 64 per word, bit k of word w of a row
+ * being the cell on column 64*w+k.
+ * @param name name of the pattern.
+ * @param width number of cells on X axis.
+ * @param height number of cells on Y axis.
+ * @param words number of words of a row.
+ * @param cells the cells, row by row.
+ */
+public final class Pattern {
+    private final String name;
+    private final int width,height,words;
+    private final long[] cells;
+
+    /**
+     * Constructor for Pattern.
+     * @param name name of the pattern.
+     * @param width number of cells on X axis.
+     * @param height number of cells on Y axis.
+     * @param cells the cells, row by row, (width+63)/64 words per row.
+     */
+    Pattern(String name, int width, int height, long[] cells){
+        this.name=name;
+        this.width=width;
+        this.height=height;
+        this.words=(width+63)>>>6;
+        this.cells=cells;
+    }
+
+    /**
+     * Getter for name.
+     * @return name of the pattern.
+     */
+    public String getName(){ return name; }
+
+    /**
+     * Getter on width.
+     * @return number of cells on X axis.
+     */
+    public int getWidth(){ return width; }
+
+    /**
+     * Getter on height.
+     * @return number of cells on Y axis.
+     */
+    public int getHeight(){ return height; }
+
+    /**
+     * Checks if the cell at given coordinates is alive.
+     * @return true if alive, false if not.
+     */
+    public boolean isAlive(int x, int y){ return (cells[y*words+(x>>>6)]>>>x&1L)!=0; }
+
+    /**
+     * Returns number of living cells.
+     * @return cpt - cell counter.
+     */
+    public int countAlive(){
+        int cpt=0;
+        for(long word: cells){
+            cpt+=Long.bitCount(word);
+        }
+        return cpt;
+    }
+
+    /**
+     * Writes the pattern into a grid. The whole rectangle of the pattern is written, dead cells included,
+     * and cells falling outside of the grid are ignored.
+     * @param g the grid.
+     * @param left column of the grid of the first column of the pattern.
+     * @param top row of the grid of the first row of the pattern.
+     */
+    public void placeOn(Grid g, int left, int top){
+        for(int y=Math.max(0,-top); y<height && top+y<g.getHeight(); y++){
+            for(int x=Math.max(0,-left); x<width && left+x<g.getWidth(); x++){
+                if(isAlive(x,y)){
+                    g.live(left+x,top+y);
+                }else{
+                    g.die(left+x,top+y);
+                }
+            }
+        }
+    }
+}
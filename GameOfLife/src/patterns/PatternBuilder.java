@@ -0,0 +1,51 @@
+package patterns;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the living cells of a pattern while it is read, when its size is not known in advance.
+ * @param rows living cells of every row, packed 64 per word.
+ * @param width number of cells on X axis, the largest column set plus one.
+ */
+class PatternBuilder {
+    private final List<long[]> rows=new ArrayList<>();
+    private int width;
+
+    /**
+     * Resurrects a cell, growing the pattern if needed.
+     * @param x coordinate on X axis.
+     * @param y coordinate on Y axis.
+     */
+    void live(int x, int y){
+        while(rows.size()<=y){
+            rows.add(new long[1]);
+        }
+        long[] row=rows.get(y);
+        if((x>>>6)>=row.length){
+            long[] bigger=new long[Math.max(row.length*2,(x>>>6)+1)];
+            System.arraycopy(row,0,bigger,0,row.length);
+            rows.set(y,bigger);
+            row=bigger;
+        }
+        row[x>>>6]|=1L<<x;
+        width=Math.max(width,x+1);
+    }
+
+    /**
+     * Creates the pattern.
+     * @param name name of the pattern.
+     * @param minWidth width of the pattern if larger than its cells.
+     * @param minHeight height of the pattern if larger than its cells.
+     * @return the pattern.
+     */
+    Pattern build(String name, int minWidth, int minHeight){
+        int w=Math.max(width,minWidth), h=Math.max(rows.size(),minHeight), words=(w+63)>>>6;
+        long[] cells=new long[words*h];
+        for(int y=0; y<rows.size(); y++){
+            long[] row=rows.get(y);
+            System.arraycopy(row,0,cells,y*words,Math.min(words,row.length));
+        }
+        return new Pattern(name,w,h,cells);
+    }
+}
@@ -0,0 +1,34 @@
+package patterns;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Represents a pattern file format. Patterns are read as a stream, character by character,
+ * so the file is never loaded as a whole.
+ */
+public interface PatternFormat {
+
+    /**
+     * Reads a pattern. Reading stops at the end of the pattern or at the end of the stream.
+     * @param in the stream, which should be buffered.
+     * @param name name of the pattern if the file does not give one.
+     * @return the pattern.
+     * @throws IOException if the stream cannot be read or is not in this format.
+     */
+    public Pattern read(Reader in, String name) throws IOException;
+
+    /**
+     * Checks if a line starts a new pattern in a library of patterns of this format.
+     * @param line the line.
+     * @return true if it is the first line of a pattern.
+     */
+    public boolean startsPattern(String line);
+
+    /**
+     * Returns the name given by the first line of a pattern.
+     * @param line line for which startsPattern is true.
+     * @return the name.
+     */
+    public String nameOf(String line);
+}
@@ -0,0 +1,190 @@
+package patterns;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * File holding one or more patterns, in plaintext (.cells) or RLE format, each one starting with a name comment.
+ * The first lookup scans the file once and indexes the name and byte offsets of every pattern.
+ * A pattern is then read by jumping to its offset and parsing only its bytes, and kept in a cache.
+ * Files are memory-mapped, resources are read into memory once.
+ * @param name name of the library, used for a pattern without name comment.
+ * @param data content of the file.
+ * @param format format of the patterns.
+ * @param index byte range of every pattern, in the order of the file. Null until the first lookup.
+ * @param cache patterns already read.
+ */
+public class PatternLibrary {
+    private final String name;
+    private final ByteBuffer data;
+    private final PatternFormat format;
+    private Map<String,int[]> index;
+    private final Map<String,Pattern> cache;
+
+    /**
+     * Constructor for PatternLibrary.
+     * @param name name of the library.
+     * @param data content of the file.
+     * @param format format of the patterns.
+     */
+    private PatternLibrary(String name, ByteBuffer data, PatternFormat format){
+        this.name=name;
+        this.data=data.asReadOnlyBuffer();
+        this.format=format;
+        cache=new HashMap<>();
+    }
+
+    /**
+     * Opens a pattern file. Files ending with .rle are read as RLE, others as plaintext.
+     * @param path the file.
+     * @return the library.
+     * @throws IOException if the file cannot be read.
+     */
+    public static PatternLibrary open(Path path) throws IOException {
+        try(FileChannel channel=FileChannel.open(path,StandardOpenOption.READ)){
+            String file=path.getFileName().toString();
+            return new PatternLibrary(file,channel.map(FileChannel.MapMode.READ_ONLY,0,channel.size()),formatOf(file));
+        }
+    }
+
+    /**
+     * Opens a pattern file from the resources.
+     * @param resource absolute name of the resource.
+     * @return the library.
+     * @throws IOException if the resource cannot be read.
+     */
+    public static PatternLibrary fromResource(String resource) throws IOException {
+        try(InputStream in=PatternLibrary.class.getResourceAsStream(resource)){
+            if(in==null){
+                throw new IOException("Resource not found : "+resource);
+            }
+            return new PatternLibrary(resource,ByteBuffer.wrap(in.readAllBytes()),formatOf(resource));
+        }
+    }
+
+    /**
+     * Returns the format of a file from its name.
+     * @param file name of the file.
+     * @return FormatRle for .rle files, FormatCells otherwise.
+     */
+    private static PatternFormat formatOf(String file){
+        return file.toLowerCase().endsWith(".rle") ? new FormatRle() : new FormatCells();
+    }
+
+    /**
+     * Returns the names of the patterns, in the order of the file.
+     * @return the names.
+     */
+    public synchronized List<String> getNames(){ return Collections.unmodifiableList(new ArrayList<>(index().keySet())); }
+
+    /**
+     * Returns a pattern, reading it on first call.
+     * @param pattern name of the pattern.
+     * @return the pattern.
+     * @throws IOException if the pattern cannot be parsed.
+     * @throws IllegalArgumentException if there is no such pattern.
+     */
+    public synchronized Pattern get(String pattern) throws IOException {
+        Pattern p=cache.get(pattern);
+        if(p==null){
+            int[] range=index().get(pattern);
+            if(range==null){
+                throw new IllegalArgumentException("Unknown pattern : "+pattern);
+            }
+            ByteBuffer slice=data.duplicate();
+            slice.position(range[0]).limit(range[1]);
+            try(BufferedReader in=new BufferedReader(new InputStreamReader(new BufferInputStream(slice),StandardCharsets.UTF_8))){
+                p=format.read(in,pattern);
+            }
+            cache.put(pattern,p);
+        }
+        return p;
+    }
+
+    /**
+     * Returns the index, scanning the file on first call. A file without any name comment is a single pattern
+     * named after the library.
+     * @return byte range of every pattern.
+     */
+    private Map<String,int[]> index(){
+        if(index==null){
+            index=new LinkedHashMap<>();
+            String current=null;
+            int start=0, line=0, end=data.limit();
+            for(int i=0; i<=end; i++){
+                if(i==end || data.get(i)=='\n'){
+                    String text=new String(bytes(line,Math.min(i,line+256)),StandardCharsets.UTF_8).trim();
+                    if(format.startsPattern(text)){
+                        if(current!=null){
+                            index.put(current,new int[]{start,line});
+                        }
+                        current=format.nameOf(text);
+                        start=line;
+                    }
+                    line=i+1;
+                }
+            }
+            index.put(current==null ? name : current,new int[]{start,end});
+        }
+        return index;
+    }
+
+    /**
+     * Copies bytes of the file.
+     * @param from index of the first byte.
+     * @param to index after the last byte.
+     * @return the bytes.
+     */
+    private byte[] bytes(int from, int to){
+        byte[] b=new byte[Math.max(0,to-from)];
+        data.duplicate().position(from).get(b);
+        return b;
+    }
+
+    /**
+     * Stream reading the remaining bytes of a buffer.
+     */
+    private static class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        /**
+         * Constructor for BufferInputStream.
+         * @param buffer the buffer, read from its position to its limit.
+         */
+        BufferInputStream(ByteBuffer buffer){ this.buffer=buffer; }
+
+        /**
+         * Reads a byte.
+         * @return the byte, or -1 at the end of the buffer.
+         */
+        @Override
+        public int read(){ return buffer.hasRemaining() ? buffer.get()&0xFF : -1; }
+
+        /**
+         * Reads bytes.
+         * @return number of bytes read, or -1 at the end of the buffer.
+         */
+        @Override
+        public int read(byte[] b, int off, int len){
+            if(!buffer.hasRemaining()){
+                return -1;
+            }
+            len=Math.min(len,buffer.remaining());
+            buffer.get(b,off,len);
+            return len;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package snapshots;
+
+import grids.Grid;
+import grids.GridBits;
+import grids.Topology;
+import visitors.Rule;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Binary snapshot of a game, written and read through memory-mapped files.
+ * The file starts with a header of 32 bytes, in little endian:
+ * magic "GOLS" (int), version (short), topology (byte), reserved (byte), width (int), height (int),
+ * birth mask (short), survival mask (short), generation (long), reserved (int).
+ * Then come the rows, from top to bottom, each one made of (width+63)/64 longs where bit k of word w is
+ * the cell on column 64*w+k. Rows are mapped by bands so that files larger than 2 GB can be handled.
+ * @param path the file.
+ * @param width number of cells on X axis.
+ * @param height number of cells on Y axis.
+ * @param rule rule of the game.
+ * @param generation generation of the game.
+ * @param topology topology of the game.
+ */
+public final class SnapshotFile {
+    public static final int MAGIC=0x534C4F47;
+    public static final short VERSION=1;
+    public static final int HEADER=32;
+    private static final long BAND=1L<<26;
+
+    private final Path path;
+    private final int width,height;
+    private final Rule rule;
+    private final long generation;
+    private final Topology topology;
+
+    /**
+     * Constructor for SnapshotFile. Reads the header of a file.
+     * @param path the file.
+     * @throws IOException if the file cannot be read or is not a snapshot of this version.
+     */
+    private SnapshotFile(Path path) throws IOException {
+        this.path=path;
+        try(FileChannel channel=FileChannel.open(path,StandardOpenOption.READ)){
+            if(channel.size()<HEADER){
+                throw new IOException("Not a snapshot file : "+path);
+            }
+            MappedByteBuffer header=channel.map(FileChannel.MapMode.READ_ONLY,0,HEADER);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if(header.getInt()!=MAGIC){
+                throw new IOException("Not a snapshot file : "+path);
+            }
+            short version=header.getShort();
+            if(version!=VERSION){
+                throw new IOException("Unsupported snapshot version "+version+" : "+path);
+            }
+            int t=header.get();
+            header.get();
+            width=header.getInt();
+            height=header.getInt();
+            int birth=header.getShort(), survival=header.getShort();
+            generation=header.getLong();
+            if(t<0 || t>=Topology.values().length || width<0 || height<0){
+                throw new IOException("Corrupted snapshot header : "+path);
+            }
+            topology=Topology.values()[t];
+            rule=new Rule(birth&0x1FF,survival&0x1FF);
+            if(channel.size()<HEADER+(long)height*words(width)*8){
+                throw new IOException("Truncated snapshot : "+path);
+            }
+        }
+    }
+
+    /**
+     * Opens a snapshot file and reads its header. Cells are read by readInto.
+     * @param path the file.
+     * @return the snapshot.
+     * @throws IOException if the file cannot be read or is not a snapshot of this version.
+     */
+    public static SnapshotFile open(Path path) throws IOException { return new SnapshotFile(path); }
+
+    /**
+     * Returns number of words of a row.
+     * @param width number of cells on X axis.
+     * @return number of longs.
+     */
+    private static int words(int width){ return (width+63)>>>6; }
+
+    /**
+     * Writes a snapshot file, replacing the file if it exists.
+     * Every mapped region is forced to the storage device before the file is closed, so a saved snapshot survives a crash.
+     * @param path the file.
+     * @param g the grid.
+     * @param rule rule of the game.
+     * @param generation generation of the game.
+     * @param topology topology of the game.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void save(Path path, Grid g, Rule rule, long generation, Topology topology) throws IOException {
+        int width=g.getWidth(), height=g.getHeight(), words=words(width);
+        try(FileChannel channel=FileChannel.open(path,StandardOpenOption.CREATE,StandardOpenOption.READ,
+                StandardOpenOption.WRITE,StandardOpenOption.TRUNCATE_EXISTING)){
+            MappedByteBuffer header=channel.map(FileChannel.MapMode.READ_WRITE,0,HEADER);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putShort(VERSION).put((byte)topology.ordinal()).put((byte)0)
+                  .putInt(width).putInt(height)
+                  .putShort((short)rule.getBirthMask()).putShort((short)rule.getSurvivalMask())
+                  .putLong(generation).putInt(0);
+            header.force();
+
+            long[] row=new long[words];
+            int rows=bandRows(words);
+            for(int y0=0; y0<height; y0+=rows){
+                int n=Math.min(rows,height-y0);
+                MappedByteBuffer mapped=channel.map(FileChannel.MapMode.READ_WRITE,HEADER+(long)y0*words*8,(long)n*words*8);
+                LongBuffer band=mapped.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+                for(int y=y0; y<y0+n; y++){
+                    readRow(g,y,row);
+                    band.put(row);
+                }
+                mapped.force();
+            }
+        }
+    }
+
+    /**
+     * Reads the cells of the snapshot into a grid, replacing all its cells.
+     * @param g grid with the dimensions of the snapshot.
+     * @throws IOException if the file cannot be read.
+     */
+    public void readInto(Grid g) throws IOException {
+        if(g.getWidth()!=width || g.getHeight()!=height){
+            throw new IllegalArgumentException("Grid is "+g.getWidth()+"x"+g.getHeight()+", snapshot is "+width+"x"+height);
+        }
+        int words=words(width);
+        try(FileChannel channel=FileChannel.open(path,StandardOpenOption.READ)){
+            long[] row=new long[words];
+            int rows=bandRows(words);
+            for(int y0=0; y0<height; y0+=rows){
+                int n=Math.min(rows,height-y0);
+                LongBuffer band=channel.map(FileChannel.MapMode.READ_ONLY,HEADER+(long)y0*words*8,(long)n*words*8)
+                                       .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+                for(int y=y0; y<y0+n; y++){
+                    band.get(row);
+                    writeRow(g,y,row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns number of rows mapped at once.
+     * @param words number of words of a row.
+     * @return number of rows of a band, at least 1.
+     */
+    private static int bandRows(int words){ return (int)Math.max(1,BAND/Math.max(1,words*8L)); }
+
+    /**
+     * Copies a row of a grid into words. Whole words are copied from a GridBits.
+     * @param g the grid.
+     * @param y coordinate on Y axis.
+     * @param row array receiving the row.
+     */
+    private static void readRow(Grid g, int y, long[] row){
+        if(g instanceof GridBits bits){
+            bits.getRow(y,row);
+            return;
+        }
+        Arrays.fill(row,0L);
+        for(int x=0; x<g.getWidth(); x++){
+            if(g.isAlive(x,y)){
+                row[x>>>6]|=1L<<x;
+            }
+        }
+    }
+
+    /**
+     * Copies words into a row of a grid. Whole words are copied into a GridBits.
+     * @param g the grid.
+     * @param y coordinate on Y axis.
+     * @param row array holding the row.
+     */
+    private static void writeRow(Grid g, int y, long[] row){
+        if(g instanceof GridBits bits){
+            bits.setRow(y,row);
+            return;
+        }
+        for(int x=0; x<g.getWidth(); x++){
+            if((row[x>>>6]>>>x&1L)!=0){
+                g.live(x,y);
+            }else{
+                g.die(x,y);
+            }
+        }
+    }
+
+    /**
+     * Getter on width.
+     * @return number of cells on X axis.
+     */
+    public int getWidth(){ return width; }
+
+    /**
+     * Getter on height.
+     * @return number of cells on Y axis.
+     */
+    public int getHeight(){ return height; }
+
+    /**
+     * Getter for rule.
+     * @return rule of the game.
+     */
+    public Rule getRule(){ return rule; }
+
+    /**
+     * Getter for generation.
+     * @return generation of the game.
+     */
+    public long getGeneration(){ return generation; }
+
+    /**
+     * Getter for topology.
+     * @return topology of the game.
+     */
+    public Topology getTopology(){ return topology; }
+}
@@ -0,0 +1,794 @@
+package tests;
+
+import automaton.JeuDeLaVie;
+import engines.Engine;
+import engines.EngineBitSliced;
+import engines.EngineBuffered;
+import engines.EngineCommands;
+import engines.EngineParallel;
+import engines.EngineVector;
+import ensemble.EnsembleRunner;
+import ensemble.SimulationResult;
+import ensemble.SimulationSpec;
+import engines.Engines;
+import hashlife.HashLife;
+import grids.Grid;
+import grids.GridBits;
+import grids.GridObjects;
+import grids.Soup;
+import grids.Topology;
+import grids.Universe;
+import history.CycleDetector;
+import history.GenerationHistory;
+import patterns.FormatCells;
+import patterns.FormatRle;
+import patterns.Pattern;
+import patterns.PatternFormat;
+import patterns.PatternLibrary;
+import snapshots.SnapshotFile;
+import visitors.Rule;
+import visitors.VisitorDayNight;
+import visitors.VisitorRule;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Testing class. Contains a main method checking that the engines calculate exactly the same generations as EngineCommands,
+ * the reference engine, on random grids of several sizes, for Classic, HighLife and DayNight on every topology.
+ * After every generation the cells, births, deaths and population of both games must be identical.
+ * Halfway, a few cells are flipped in both games, as a user would, so that engines skipping tiles see touched tiles.
+ * Changing the topology or the rule of a running game must be seen by engines skipping tiles as well.
+ * HashLife must jump to the generations EngineCommands reaches one by one, even when its memory budget makes it forget nodes.
+ * The unbounded universe must move gliders across chunks as EngineCommands does, and drop the chunks they leave.
+ * Going back with the history must give every generation kept as it was calculated, whether or not old keyframes were dropped.
+ * Snapshot files must give back what was saved, and truncated or foreign files must be refused.
+ * Patterns must be read with their name, size and cells from RLE and plaintext files, the bundled ones included.
+ * Prints every difference found and exits with status 1 if there is any.
+ * The vector kernel is only checked when the Vector API is available (java --add-modules jdk.incubator.vector),
+ * the scalar kernel otherwise: the kernel used is printed.
+ * Random grids must not depend on the run nor on the number of threads filling them, and ensembles must give the same results
+ * on virtual threads and on pools of platform threads, as games calculated one by one.
+ * @param failures number of checks that failed.
+ */
+public class EngineCheck {
+    private static final Rule[] RULES={Rule.CLASSIC,Rule.HIGHLIFE,Rule.DAYNIGHT};
+    private static final int[][] SIZES={{1,1},{3,5},{63,64},{65,70},{130,33},{200,129}};
+    private static final int[][] BANDS={{200,129},{100,400}};
+    private static final int[][] SPARSE={{300,260}};
+    private static final int GENERATIONS=40;
+    private static final long[] JUMPS={1,3,10,37,5,45};
+    private static final long HASHLIFE_SMALL=16L<<10;
+
+    private static int failures;
+
+    public static void main(String[] args){
+        compareEngines("bitsliced",EngineBitSliced::new,SIZES,0.35);
+        // Grids of several rows of tiles, so that the fork-join pool splits them in bands
+        compareEngines("parallel 1",() -> new EngineParallel(1),BANDS,0.35);
+        compareEngines("parallel 4",() -> new EngineParallel(4),BANDS,0.35);
+        // Sparse grids, where most tiles stay still and are skipped
+        compareEngines("buffered",EngineBuffered::new,SIZES,0.35);
+        double skipped=compareEngines("buffered sparse",EngineBuffered::new,SPARSE,0.02);
+        check(skipped>0,"buffered sparse : no tile was ever skipped");
+        // Both kernels of EngineVector
+        compareEngines("vector ("+new EngineVector().getKernel()+")",EngineVector::new,SIZES,0.35);
+        compareEngines("vector-scalar ("+new EngineVector(false).getKernel()+")",() -> new EngineVector(false),SIZES,0.35);
+        // Changes of a running game that leave its grid as it is
+        checkChanges("buffered",EngineBuffered::new);
+        checkChanges("parallel",() -> new EngineParallel(4));
+        checkChanges("bitsliced",EngineBitSliced::new);
+        checkHashLife();
+        checkUniverse();
+        checkHistory("commands",EngineCommands::new);
+        checkHistory("buffered",EngineBuffered::new);
+        checkSnapshots();
+        checkPatterns();
+        checkSoups();
+        checkEnsembles();
+
+        if(failures>0){
+            System.out.println(failures+" checks failed");
+            System.exit(1);
+        }
+        System.out.println("All checks passed");
+    }
+
+    /**
+     * Records a failed check if a condition is false.
+     * @param condition the condition.
+     * @param message what was checked.
+     */
+    private static void check(boolean condition, String message){
+        if(!condition){
+            failures++;
+            System.out.println("FAILED : "+message);
+        }
+    }
+
+    /**
+     * Creates a game filled with a random grid.
+     * @param width number of cells on X axis.
+     * @param height number of cells on Y axis.
+     * @param density density of living cells.
+     * @param seed seed of the random grid.
+     * @param rule rule of the game.
+     * @param topology topology of the grid.
+     * @param engine engine of the game.
+     * @return the game.
+     */
+    private static JeuDeLaVie game(int width, int height, double density, long seed, Rule rule, Topology topology, Engine engine){
+        JeuDeLaVie game=new JeuDeLaVie();
+        game.setGrid(new GridBits(width,height));
+        game.setDensity(density);
+        game.initializeGrid(seed);
+        game.setVisitor(new VisitorRule(game,rule));
+        game.setTopology(topology);
+        game.setEngine(engine);
+        return game;
+    }
+
+    /**
+     * Creates a game where only given cells are alive.
+     * @param width number of cells on X axis.
+     * @param height number of cells on Y axis.
+     * @param rule rule of the game.
+     * @param topology topology of the grid.
+     * @param cells coordinates of the living cells.
+     * @param engine engine of the game.
+     * @return the game.
+     */
+    private static JeuDeLaVie game(int width, int height, Rule rule, Topology topology, int[][] cells, Engine engine){
+        JeuDeLaVie game=game(width,height,0,0,rule,topology,engine);
+        for(int[] c: cells){
+            game.getCellXY(c[0],c[1]).live();
+        }
+        return game;
+    }
+
+    /**
+     * Runs an engine and EngineCommands side by side from the same random grids, and compares them after every generation.
+     * @param name name of the engine, printed with the differences.
+     * @param engine creates the engine to check, once per game.
+     * @param sizes width and height of the grids.
+     * @param density density of living cells of the grids.
+     * @return largest fraction of tiles skipped by the engine during a generation.
+     */
+    private static double compareEngines(String name, Supplier<Engine> engine, int[][] sizes, double density){
+        double skipped=0;
+        long seed=0;
+        for(int[] size: sizes){
+            for(Rule rule: RULES){
+                for(Topology topology: Topology.values()){
+                    seed++;
+                    Engine checked=engine.get();
+                    JeuDeLaVie reference=game(size[0],size[1],density,seed,rule,topology,new EngineCommands());
+                    JeuDeLaVie game=game(size[0],size[1],density,seed,rule,topology,checked);
+                    try{
+                        for(int i=1; i<=GENERATIONS; i++){
+                            if(i==GENERATIONS/2){
+                                flip(reference,seed);
+                                flip(game,seed);
+                            }
+                            reference.calculateNextGen();
+                            game.calculateNextGen();
+                            skipped=Math.max(skipped,game.getSkippedTiles());
+                            String where=name+" "+size[0]+"x"+size[1]+" "+rule+" "+topology+" seed "+seed+" generation "+i;
+                            if(!same(reference,game,where)){
+                                break;
+                            }
+                        }
+                    }finally{
+                        Engines.dispose(checked);
+                    }
+                }
+            }
+        }
+        System.out.println(name+" checked against commands");
+        return skipped;
+    }
+
+    /**
+     * Changes running games without modifying their grid, and checks that an engine still calculates the same generations
+     * as EngineCommands afterwards.
+     * @param name name of the engine, printed with the differences.
+     * @param engine creates the engine to check.
+     */
+    private static void checkChanges(String name, Supplier<Engine> engine){
+        // Blocks on the left and right edges are still on a plane, and neighbours once the grid wraps around
+        int[][] blocks={{0,9},{1,9},{0,10},{1,10},{126,9},{127,9},{126,10},{127,10}};
+        for(Topology topology: new Topology[]{Topology.TORUS,Topology.KLEIN}){
+            compareChange(name+" plane to "+topology,engine,
+                          e -> game(128,64,Rule.CLASSIC,Topology.PLANE,blocks,e),g -> g.setTopology(topology));
+        }
+        compareChange(name+" torus to plane",engine,
+                      e -> game(128,64,Rule.CLASSIC,Topology.TORUS,blocks,e),g -> g.setTopology(Topology.PLANE));
+        // A beehive is still under Classic and dies out under DayNight
+        int[][] beehive={{61,60},{62,60},{60,61},{63,61},{61,62},{62,62}};
+        compareChange(name+" Classic to DayNight",engine,
+                      e -> game(128,128,Rule.CLASSIC,Topology.PLANE,beehive,e),g -> g.setVisitor(VisitorDayNight.getInstance(g)));
+        compareChange(name+" Classic to HighLife",engine,
+                      e -> game(128,128,Rule.CLASSIC,Topology.TORUS,blocks,e),g -> g.setVisitor(new VisitorRule(g,Rule.HIGHLIFE)));
+        System.out.println(name+" checked after changes");
+    }
+
+    /**
+     * Runs an engine and EngineCommands side by side from the same cells, changes both games after 3 generations,
+     * and compares them after every generation. The cycle detector of the game checked must forget the generations seen before the change.
+     * @param name description of the case, printed with the differences.
+     * @param engine creates the engine to check.
+     * @param setup creates the game with an engine.
+     * @param change changes a game without modifying its grid.
+     */
+    private static void compareChange(String name, Supplier<Engine> engine, Function<Engine,JeuDeLaVie> setup, Consumer<JeuDeLaVie> change){
+        Engine checked=engine.get();
+        JeuDeLaVie reference=setup.apply(new EngineCommands());
+        JeuDeLaVie game=setup.apply(checked);
+        CycleDetector cycles=new CycleDetector(64);
+        game.setCycleDetector(cycles);
+        try{
+            for(int i=1; i<=GENERATIONS/2; i++){
+                if(i==4){
+                    change.accept(reference);
+                    change.accept(game);
+                    check(!cycles.isCycling(),name+" : cycle of the generations before the change kept");
+                }
+                reference.calculateNextGen();
+                game.calculateNextGen();
+                if(!same(reference,game,name+" generation "+i)){
+                    break;
+                }
+            }
+        }finally{
+            Engines.dispose(checked);
+        }
+    }
+
+    /**
+     * Advances random patterns with HashLife by JUMPS generations at a time, through JeuDeLaVie.advance and through a HashLife
+     * whose memory budget is small enough to be collected during every jump, and compares them with EngineCommands
+     * calculating the same generations one by one. The patterns start in the middle of a plane far larger than they can grow,
+     * so that the edges of the grid, where the plane of EngineCommands ends, are never reached.
+     */
+    private static void checkHashLife(){
+        long seed=0;
+        for(Rule rule: RULES){
+            for(double density: new double[]{0.2,0.45}){
+                seed++;
+                JeuDeLaVie pattern=game(48,48,density,seed,rule,Topology.PLANE,new EngineCommands());
+                int[][] cells=new int[pattern.getPopulation()][];
+                int k=0;
+                for(int y=0; y<48; y++){
+                    for(int x=0; x<48; x++){
+                        if(pattern.isAlive(x,y)){
+                            cells[k++]=new int[]{x+104,y+104};
+                        }
+                    }
+                }
+                JeuDeLaVie reference=game(256,256,rule,Topology.PLANE,cells,new EngineCommands());
+                JeuDeLaVie game=game(256,256,rule,Topology.PLANE,cells,new EngineCommands());
+                HashLife small=new HashLife(rule,HASHLIFE_SMALL);
+                small.importGrid(reference.getGrid());
+                Grid window=new GridBits(256,256);
+                int largest=0;
+                long generation=0;
+                for(long jump: JUMPS){
+                    for(long i=0; i<jump; i++){
+                        reference.calculateNextGen();
+                    }
+                    game.advance(jump);
+                    small.advance(jump);
+                    small.exportWindow(window,0,0);
+                    largest=Math.max(largest,game.getHashLife().getNodeCount());
+                    generation+=jump;
+                    String where="hashlife "+rule+" density "+density+" generation "+generation;
+                    check(!touchesEdge(reference.getGrid()),where+" : pattern reached the edge of the grid");
+                    check(sameCells(reference.getGrid(),game.getGrid()),where+" : cells of advance differ");
+                    check(sameCells(reference.getGrid(),window),where+" : cells differ with a small memory budget");
+                    check(small.getPopulation()==reference.getPopulation(),where+" : population "+small.getPopulation()+" instead of "+reference.getPopulation());
+                }
+                check(small.getNodeCount()<largest,"hashlife "+rule+" density "+density+" : small memory budget never collected");
+            }
+        }
+        System.out.println("hashlife checked against commands");
+    }
+
+    /**
+     * Sends four gliders from around the origin of a universe towards the four diagonals, so that they cross chunk borders
+     * on both axes and in both directions, negative coordinates included. After every generation the universe, seen through
+     * a window centered on the origin, must have the cells of EngineCommands on a plane grid as large as the window,
+     * and exactly one chunk for every 64x64 square where a cell is alive: chunks the gliders leave must be removed.
+     */
+    private static void checkUniverse(){
+        int[][] glider={{1,0},{2,1},{0,2},{1,2},{2,2}};
+        int size=512, origin=size/2;
+        Universe universe=new Universe();
+        List<int[]> cells=new ArrayList<>();
+        for(int dx: new int[]{1,-1}){
+            for(int dy: new int[]{1,-1}){
+                for(int[] c: glider){
+                    // Mirrored gliders fly towards negative coordinates
+                    int x=dx>0 ? 10+c[0] : -13+2-c[0], y=dy>0 ? 10+c[1] : -13+2-c[1];
+                    universe.live(x,y);
+                    cells.add(new int[]{x+origin,y+origin});
+                }
+            }
+        }
+        JeuDeLaVie reference=game(size,size,Rule.CLASSIC,Topology.PLANE,cells.toArray(new int[0][]),new EngineCommands());
+        Grid window=new GridBits(size,size);
+        int before=failures;
+        for(int i=1; i<=GENERATIONS*10; i++){
+            reference.calculateNextGen();
+            universe.step(Rule.CLASSIC);
+            universe.exportWindow(window,-origin,-origin);
+            String where="universe generation "+i;
+            Set<Long> occupied=new HashSet<>();
+            for(int y=0; y<size; y++){
+                for(int x=0; x<size; x++){
+                    if(reference.isAlive(x,y)){
+                        occupied.add((long)Math.floorDiv(x-origin,Universe.CHUNK)<<32 | Math.floorDiv(y-origin,Universe.CHUNK)&0xFFFFFFFFL);
+                    }
+                }
+            }
+            check(sameCells(reference.getGrid(),window),where+" : cells differ");
+            check(universe.countAlive()==reference.getPopulation(),where+" : population "+universe.countAlive()+" instead of "+reference.getPopulation());
+            check(universe.getChunkCount()==occupied.size(),where+" : "+universe.getChunkCount()+" chunks instead of "+occupied.size());
+            if(failures>before){
+                break;
+            }
+        }
+        System.out.println("universe checked against commands");
+    }
+
+    /**
+     * Records generations of random grids calculated by an engine, with a few cells flipped every 7 generations,
+     * then goes back to the oldest generation kept by steps of 1, 5 and 13 generations. Every generation reached must have
+     * the number and the cells it had when it was calculated. With a small history, old keyframes are dropped on the way
+     * and the oldest generation kept must be a later one. From the oldest generation, the engine must calculate the same
+     * generations as EngineCommands.
+     * @param name name of the engine, printed with the differences.
+     * @param engine creates the engine.
+     */
+    private static void checkHistory(String name, Supplier<Engine> engine){
+        for(long maxBytes: new long[]{64L<<10,16L<<20}){
+            for(int step: new int[]{1,5,13}){
+                Engine checked=engine.get();
+                JeuDeLaVie game=game(200,129,0.35,step,Rule.CLASSIC,Topology.TORUS,checked);
+                GenerationHistory history=new GenerationHistory(maxBytes,8);
+                game.setHistory(history);
+                Map<Long,Grid> saved=new HashMap<>();
+                saved.put(0L,copy(game.getGrid()));
+                try{
+                    for(int i=1; i<=GENERATIONS*2; i++){
+                        game.calculateNextGen();
+                        saved.put(game.getGeneration(),copy(game.getGrid()));
+                        if(i%7==0){
+                            flip(game,i);
+                        }
+                    }
+                    String where="history "+name+" "+(maxBytes>>10)+" KB by "+step;
+                    long oldest=history.getOldestGeneration();
+                    check(maxBytes>=1L<<20 ? oldest==0 : oldest>0,where+" : oldest generation kept "+oldest);
+                    long expected=game.getGeneration();
+                    while(game.stepBack(step)){
+                        expected=Math.max(oldest,expected-step);
+                        check(game.getGeneration()==expected,where+" : generation "+game.getGeneration()+" instead of "+expected);
+                        if(!sameCells(saved.get(game.getGeneration()),game.getGrid())){
+                            check(false,where+" : cells of generation "+game.getGeneration()+" differ");
+                            break;
+                        }
+                    }
+                    check(game.getGeneration()==oldest,where+" : stopped at generation "+game.getGeneration()+" instead of "+oldest);
+                    JeuDeLaVie reference=game(200,129,0,0,Rule.CLASSIC,Topology.TORUS,new EngineCommands());
+                    reference.setGrid(copy(game.getGrid()));
+                    for(int i=1; i<=10; i++){
+                        reference.calculateNextGen();
+                        game.calculateNextGen();
+                        if(!same(reference,game,where+" : generation "+i+" after going back")){
+                            break;
+                        }
+                    }
+                }finally{
+                    Engines.dispose(checked);
+                }
+            }
+        }
+        System.out.println("history checked with "+name);
+    }
+
+    /**
+     * Saves random grids whose width is not a multiple of 64, from a GridBits and from a GridObjects, opens them again
+     * and checks the header and the cells read into both kinds of grids. Then checks that files shorter than their cells,
+     * shorter than the header, or with another magic number or version are refused.
+     */
+    private static void checkSnapshots(){
+        Path path=null;
+        try{
+            path=Files.createTempFile("check",".gols");
+            Rule rule=Rule.parse("B36/S125");
+            for(int[] size: new int[][]{{130,77},{1,3},{63,65}}){
+                JeuDeLaVie game=game(size[0],size[1],0.35,size[0],Rule.CLASSIC,Topology.PLANE,new EngineCommands());
+                for(Grid saved: new Grid[]{game.getGrid(),copyObjects(game.getGrid())}){
+                    String where="snapshot "+size[0]+"x"+size[1]+" from "+saved.getClass().getSimpleName();
+                    SnapshotFile.save(path,saved,rule,123456789012L,Topology.KLEIN);
+                    SnapshotFile snapshot=SnapshotFile.open(path);
+                    check(snapshot.getWidth()==size[0] && snapshot.getHeight()==size[1],where+" : size "+snapshot.getWidth()+"x"+snapshot.getHeight());
+                    check(rule.equals(snapshot.getRule()),where+" : rule "+snapshot.getRule());
+                    check(snapshot.getGeneration()==123456789012L,where+" : generation "+snapshot.getGeneration());
+                    check(snapshot.getTopology()==Topology.KLEIN,where+" : topology "+snapshot.getTopology());
+                    for(Grid read: new Grid[]{new GridBits(size[0],size[1]),new GridObjects(size[0],size[1])}){
+                        snapshot.readInto(read);
+                        check(sameCells(saved,read),where+" : cells read into "+read.getClass().getSimpleName()+" differ");
+                    }
+                }
+            }
+            byte[] bytes=Files.readAllBytes(path);
+            refused(path,Arrays.copyOf(bytes,bytes.length-1),"snapshot shorter than its cells");
+            refused(path,Arrays.copyOf(bytes,SnapshotFile.HEADER-1),"snapshot shorter than its header");
+            byte[] magic=bytes.clone();
+            magic[0]^=1;
+            refused(path,magic,"snapshot with another magic number");
+            byte[] version=bytes.clone();
+            version[4]++;
+            refused(path,version,"snapshot of another version");
+        }catch(IOException e){
+            check(false,"snapshot : "+e);
+        }finally{
+            try{
+                if(path!=null){
+                    Files.deleteIfExists(path);
+                }
+            }catch(IOException e){
+                e.printStackTrace();
+            }
+        }
+        System.out.println("snapshots checked");
+    }
+
+    /**
+     * Reads patterns in RLE, with runs of several digits, runs of empty rows and a line break inside the runs,
+     * and in plaintext, with comments and Windows line endings, then a library of two RLE patterns.
+     * Finally checks the names, sizes and populations of the bundled patterns.
+     */
+    private static void checkPatterns(){
+        int[][] glider={{1,0},{2,1},{0,2},{1,2},{2,2}};
+        Path path=null;
+        try{
+            Pattern p=read(new FormatRle(),"#N Long line\n#C 3o is not a cell\nx = 82, y = 5, rule = B3/S23\n12b70o$3$\nb2o!1000o\n");
+            checkPattern(p,"Long line",82,5,72,"rle with long runs");
+            check(!p.isAlive(11,0) && p.isAlive(12,0) && p.isAlive(81,0) && !p.isAlive(12,1) && !p.isAlive(1,3) && p.isAlive(1,4) && p.isAlive(2,4),
+                  "rle with long runs : cells misplaced");
+            checkPattern(read(new FormatRle(),"x = 3, y = 3\nbo$2bo$3o!"),"unnamed",3,3,glider,"rle glider");
+            checkPattern(read(new FormatCells(),"!Name: Glider\n!Author: O.O and more O\n.O.\n..O\nOOO\n"),"Glider",3,3,glider,"cells glider");
+            checkPattern(read(new FormatCells(),"!Name: Glider\r\n!\r\n.O\r\n..O\r\nOOO"),"Glider",3,3,glider,"cells glider with CRLF");
+            path=Files.createTempFile("check",".rle");
+            Files.writeString(path,"#N Blinker\nx = 3, y = 1\n3o!\n#N Glider\n#C second pattern\nx = 3, y = 3\nbo$2bo$3o!\n");
+            PatternLibrary library=PatternLibrary.open(path);
+            check(library.getNames().equals(List.of("Blinker","Glider")),"rle library : names "+library.getNames());
+            checkPattern(library.get("Blinker"),"Blinker",3,1,3,"rle library");
+            checkPattern(library.get("Glider"),"Glider",3,3,glider,"rle library");
+            library=JeuDeLaVie.getPatternLibrary();
+            check(library.getNames().equals(List.of("Snails","Replicators","Glider Gun")),"bundled patterns : names "+library.getNames());
+            int[] populations={39,12,36};
+            for(int i=0; i<populations.length && i<library.getNames().size(); i++){
+                String name=library.getNames().get(i);
+                checkPattern(library.get(name),name,50,50,populations[i],"bundled patterns");
+            }
+        }catch(IOException e){
+            check(false,"patterns : "+e);
+        }finally{
+            try{
+                if(path!=null){
+                    Files.deleteIfExists(path);
+                }
+            }catch(IOException e){
+                e.printStackTrace();
+            }
+        }
+        System.out.println("patterns checked");
+    }
+
+    /**
+     * Reads a pattern from a string.
+     * @param format format of the pattern.
+     * @param text the pattern.
+     * @return the pattern, named "unnamed" if the text gives no name.
+     * @throws IOException if the pattern cannot be parsed.
+     */
+    private static Pattern read(PatternFormat format, String text) throws IOException {
+        return format.read(new StringReader(text),"unnamed");
+    }
+
+    /**
+     * Checks the name, size and population of a pattern.
+     * @param p the pattern.
+     * @param name expected name.
+     * @param width expected number of cells on X axis.
+     * @param height expected number of cells on Y axis.
+     * @param population expected number of living cells.
+     * @param where description of the pattern, printed if it differs.
+     */
+    private static void checkPattern(Pattern p, String name, int width, int height, int population, String where){
+        check(p.getName().equals(name),where+" : name '"+p.getName()+"' instead of '"+name+"'");
+        check(p.getWidth()==width && p.getHeight()==height,where+" : "+name+" is "+p.getWidth()+"x"+p.getHeight()+" instead of "+width+"x"+height);
+        check(p.countAlive()==population,where+" : "+name+" has "+p.countAlive()+" cells instead of "+population);
+    }
+
+    /**
+     * Checks the name, size and cells of a pattern.
+     * @param p the pattern.
+     * @param name expected name.
+     * @param width expected number of cells on X axis.
+     * @param height expected number of cells on Y axis.
+     * @param cells coordinates of the expected living cells.
+     * @param where description of the pattern, printed if it differs.
+     */
+    private static void checkPattern(Pattern p, String name, int width, int height, int[][] cells, String where){
+        checkPattern(p,name,width,height,cells.length,where);
+        for(int[] c: cells){
+            if(c[0]>=p.getWidth() || c[1]>=p.getHeight() || !p.isAlive(c[0],c[1])){
+                check(false,where+" : cell "+c[0]+","+c[1]+" of "+name+" is dead");
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes a file and checks that it cannot be opened as a snapshot.
+     * @param path the file, replaced.
+     * @param bytes content of the file.
+     * @param what description of the file, printed if it is opened.
+     * @throws IOException if the file cannot be written.
+     */
+    private static void refused(Path path, byte[] bytes, String what) throws IOException {
+        Files.write(path,bytes);
+        try{
+            SnapshotFile.open(path);
+            check(false,what+" : opened");
+        }catch(IOException e){
+            // Expected
+        }
+    }
+
+    /**
+     * Copies the cells of a grid into a GridObjects.
+     * @param g the grid.
+     * @return a new grid of cell objects with the same cells.
+     */
+    private static Grid copyObjects(Grid g){
+        GridObjects c=new GridObjects(g.getWidth(),g.getHeight());
+        for(int y=0; y<g.getHeight(); y++){
+            for(int x=0; x<g.getWidth(); x++){
+                if(g.isAlive(x,y)){
+                    c.live(x,y);
+                }
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Copies the cells of a grid.
+     * @param g the grid.
+     * @return a new grid with the same cells.
+     */
+    private static Grid copy(Grid g){
+        GridBits c=new GridBits(g.getWidth(),g.getHeight());
+        for(int y=0; y<g.getHeight(); y++){
+            for(int x=0; x<g.getWidth(); x++){
+                if(g.isAlive(x,y)){
+                    c.live(x,y);
+                }
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Checks whether a living cell lies on the first or last row or column of a grid.
+     * @param g the grid.
+     * @return true if a cell on an edge is alive.
+     */
+    private static boolean touchesEdge(Grid g){
+        for(int x=0; x<g.getWidth(); x++){
+            if(g.isAlive(x,0) || g.isAlive(x,g.getHeight()-1)){
+                return true;
+            }
+        }
+        for(int y=0; y<g.getHeight(); y++){
+            if(g.isAlive(0,y) || g.isAlive(g.getWidth()-1,y)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compares the cells of two grids of the same dimensions.
+     * @param expected the expected grid.
+     * @param actual the grid checked.
+     * @return true if the same cells are alive in both.
+     */
+    private static boolean sameCells(Grid expected, Grid actual){
+        for(int y=0; y<expected.getHeight(); y++){
+            for(int x=0; x<expected.getWidth(); x++){
+                if(expected.isAlive(x,y)!=actual.isAlive(x,y)){
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fills grids of several bands of rows from the same seeds, on pools of 1, 2 and 7 threads and twice on each,
+     * and checks that all of them get the same cells, with about the density asked for.
+     */
+    private static void checkSoups(){
+        for(double density: new double[]{0.02,0.35,0.5}){
+            for(long seed=1; seed<=3; seed++){
+                long[] expected=null;
+                for(int threads: new int[]{1,2,7,1,2,7}){
+                    long[] cells=soup(1000,2500,density,seed,threads);
+                    if(expected==null){
+                        expected=cells;
+                        long alive=Arrays.stream(cells).map(Long::bitCount).sum();
+                        double measured=(double)alive/(1000*2500);
+                        check(Math.abs(measured-density)<0.01,"soup density "+density+" seed "+seed+" : "+measured);
+                    }
+                    check(Arrays.equals(expected,cells),"soup density "+density+" seed "+seed+" differs on "+threads+" threads");
+                }
+            }
+        }
+        check(!Arrays.equals(soup(1000,2500,0.35,1,1),soup(1000,2500,0.35,2,1)),"soups of seeds 1 and 2 are the same");
+        System.out.println("soups checked");
+    }
+
+    /**
+     * Runs the same simulations on virtual threads and on pools of 1 and 4 platform threads, twice each,
+     * and checks that every simulation gives the same result, which is also the one of a game calculated alone.
+     */
+    private static void checkEnsembles(){
+        List<SimulationSpec> specs=new ArrayList<>();
+        for(int i=0; i<24; i++){
+            specs.add(new SimulationSpec().withSize(96,80).withDensity(0.2+i%4*0.1).withSeed(i)
+                    .withRule(RULES[i%3]).withTopology(Topology.values()[i/3%3])
+                    .withEngine(i%2==0 ? "buffered" : "bitsliced").withGenerations(150));
+        }
+        List<SimulationResult> expected=null;
+        for(EnsembleRunner runner: new EnsembleRunner[]{new EnsembleRunner(4,true),new EnsembleRunner(4,false),new EnsembleRunner(1,false),
+                                                        new EnsembleRunner(4,true),new EnsembleRunner(4,false)}){
+            runner.setCycleDetection(64,true);
+            List<SimulationResult> results;
+            try{
+                results=runner.run(specs).getResults();
+            }catch(InterruptedException e){
+                throw new IllegalStateException(e);
+            }
+            if(expected==null){
+                expected=results;
+                for(SimulationResult r: results){
+                    long[] alone=alone(r.getSpec());
+                    check(Arrays.equals(outcome(r),alone),"ensemble "+r.getSpec()+" : "+r+" instead of "+Arrays.toString(alone));
+                }
+            }
+            for(int i=0; i<specs.size(); i++){
+                check(Arrays.equals(outcome(expected.get(i)),outcome(results.get(i))),
+                      "ensemble on "+runner.describe()+" "+specs.get(i)+" : "+results.get(i)+" instead of "+expected.get(i));
+            }
+        }
+        System.out.println("ensembles checked");
+    }
+
+    /**
+     * Calculates a simulation alone in a game, with calculateNextGen, the way EnsembleRunner does with a cycle detector of 64 generations.
+     * @param spec settings of the simulation.
+     * @return its outcome, as given by outcome.
+     */
+    private static long[] alone(SimulationSpec spec){
+        Engine engine=Engines.create(spec.getEngine());
+        JeuDeLaVie game=game(spec.getWidth(),spec.getHeight(),spec.getDensity(),spec.getSeed(),spec.getRule(),spec.getTopology(),engine);
+        CycleDetector cycles=new CycleDetector(64);
+        game.setCycleDetector(cycles);
+        int initial=game.getPopulation();
+        long done=0, births=0, deaths=0;
+        while(done<spec.getGenerations() && !cycles.isCycling()){
+            game.calculateNextGen();
+            births+=game.getBirths();
+            deaths+=game.getDeaths();
+            done++;
+        }
+        Engines.dispose(engine);
+        return new long[]{done,initial,game.getPopulation(),births,deaths,cycles.getPeriod(),cycles.getCycleStart()};
+    }
+
+    /**
+     * Returns how a simulation went, leaving out the time it took.
+     * @param r result of the simulation.
+     * @return generations, initial and final population, births, deaths, period and start of the cycle.
+     */
+    private static long[] outcome(SimulationResult r){
+        return new long[]{r.getGenerations(),r.getInitialPopulation(),r.getPopulation(),r.getBirths(),r.getDeaths(),r.getPeriod(),r.getCycleStart()};
+    }
+
+    /**
+     * Fills a grid with random cells on a pool of threads of its own, the parallel streams of Soup running in that pool.
+     * @param width number of cells on X axis.
+     * @param height number of cells on Y axis.
+     * @param density density of living cells.
+     * @param seed seed of the random grid.
+     * @param threads number of threads of the pool.
+     * @return the cells, row by row, 64 cells per word.
+     */
+    private static long[] soup(int width, int height, double density, long seed, int threads){
+        GridBits grid=new GridBits(width,height);
+        ForkJoinPool pool=new ForkJoinPool(threads);
+        try{
+            pool.submit(() -> Soup.fill(grid,density,seed)).get();
+        }catch(InterruptedException | ExecutionException e){
+            throw new IllegalStateException(e);
+        }finally{
+            pool.shutdown();
+        }
+        int words=(width+63)>>>6;
+        long[] cells=new long[words*height], row=new long[words];
+        for(int y=0; y<height; y++){
+            grid.getRow(y,row);
+            System.arraycopy(row,0,cells,y*words,words);
+        }
+        return cells;
+    }
+
+    /**
+     * Flips a few cells of a game, the same ones for a given seed.
+     * @param game the game.
+     * @param seed chooses the cells.
+     */
+    private static void flip(JeuDeLaVie game, long seed){
+        for(int k=0; k<5; k++){
+            int x=(int)((seed*31+k*17)%game.getXmax()), y=(int)((seed*7+k*29)%game.getYmax());
+            if(game.getCellXY(x,y).isAlive()){
+                game.getCellXY(x,y).die();
+            }else{
+                game.getCellXY(x,y).live();
+            }
+        }
+    }
+
+    /**
+     * Compares the current generation of two games.
+     * @param reference game calculated by EngineCommands.
+     * @param game game calculated by the engine checked.
+     * @param where description of the generation, printed if they differ.
+     * @return true if both games have the same cells, births, deaths and population, and the reference skipped no tile.
+     */
+    private static boolean same(JeuDeLaVie reference, JeuDeLaVie game, String where){
+        boolean cells=true;
+        for(int y=0; y<reference.getYmax() && cells; y++){
+            for(int x=0; x<reference.getXmax() && cells; x++){
+                cells=reference.isAlive(x,y)==game.isAlive(x,y);
+            }
+        }
+        int before=failures;
+        check(cells,where+" : cells differ");
+        check(reference.getBirths()==game.getBirths(),where+" : births "+game.getBirths()+" instead of "+reference.getBirths());
+        check(reference.getDeaths()==game.getDeaths(),where+" : deaths "+game.getDeaths()+" instead of "+reference.getDeaths());
+        check(reference.getPopulation()==game.getPopulation(),where+" : population "+game.getPopulation()+" instead of "+reference.getPopulation());
+        check(reference.getSkippedTiles()==0,where+" : commands reports skipped tiles");
+        return failures==before;
+    }
+}
@@ -0,0 +1,153 @@
+package visitors;
+
+/**
+ * Class that represents a Life-like rule, such as B3/S23 for the classic Game Of Life.
+ * The rule is compiled into a lookup table of 512 entries, one for every possible 3x3 neighbourhood,
+ * so applying any rule costs the same as applying the classic one.
+ * @param birth bit n is set if a dead cell with n living neighbours is resurrected.
+ * @param survival bit n is set if a living cell with n living neighbours stays alive.
+ * @param table next state of the center cell for every neighbourhood. Bits 0 to 2 of the index are the row above
+ *              (left to right), bits 3 to 5 the row of the cell and bits 6 to 8 the row under.
+ */
+public final class Rule {
+    public static final Rule CLASSIC=parse("B3/S23");
+    public static final Rule HIGHLIFE=parse("B36/S23");
+    public static final Rule DAYNIGHT=parse("B3678/S34678");
+
+    private final int birth,survival;
+    private final byte[] table;
+
+    /**
+     * Constructor for Rule.
+     * @param birth bit n is set if a dead cell with n living neighbours is resurrected.
+     * @param survival bit n is set if a living cell with n living neighbours stays alive.
+     */
+    public Rule(int birth, int survival){
+        if(((birth|survival)&~0x1FF)!=0){
+            throw new IllegalArgumentException("A cell has at most 8 neighbours.");
+        }
+        this.birth=birth;
+        this.survival=survival;
+        table=new byte[512];
+        for(int i=0; i<512; i++){
+            int neighbours=Integer.bitCount(i&~0x10);
+            int mask=(i&0x10)!=0 ? survival : birth;
+            table[i]=(byte)(mask>>>neighbours&1);
+        }
+    }
+
+    /**
+     * Parses a rulestring. Accepts B/S notation (B3/S23, case insensitive, in any order) and S/B notation (23/3).
+     * @param rulestring the rulestring.
+     * @return the rule.
+     */
+    public static Rule parse(String rulestring){
+        String s=rulestring.trim().toUpperCase();
+        String[] parts=s.split("/",-1);
+        if(parts.length!=2){
+            throw new IllegalArgumentException("Invalid rulestring : "+rulestring);
+        }
+        int birth,survival;
+        if(parts[0].startsWith("B") && parts[1].startsWith("S")){
+            birth=digits(parts[0].substring(1),rulestring);
+            survival=digits(parts[1].substring(1),rulestring);
+        }else if(parts[0].startsWith("S") && parts[1].startsWith("B")){
+            survival=digits(parts[0].substring(1),rulestring);
+            birth=digits(parts[1].substring(1),rulestring);
+        }else{
+            survival=digits(parts[0],rulestring);
+            birth=digits(parts[1],rulestring);
+        }
+        return new Rule(birth,survival);
+    }
+
+    /**
+     * Converts a list of neighbour counts into a mask.
+     * @param list digits between 0 and 8.
+     * @param rulestring the whole rulestring, for error messages.
+     * @return mask where bit n is set if n is in the list.
+     */
+    private static int digits(String list, String rulestring){
+        int mask=0;
+        for(char c: list.toCharArray()){
+            if(c<'0' || c>'8'){
+                throw new IllegalArgumentException("Invalid rulestring : "+rulestring);
+            }
+            mask|=1<<(c-'0');
+        }
+        return mask;
+    }
+
+    /**
+     * Getter for birth mask.
+     * @return mask where bit n is set if a dead cell with n living neighbours is resurrected.
+     */
+    public int getBirthMask(){ return birth; }
+
+    /**
+     * Getter for survival mask.
+     * @return mask where bit n is set if a living cell with n living neighbours stays alive.
+     */
+    public int getSurvivalMask(){ return survival; }
+
+    /**
+     * Checks if a dead cell is resurrected.
+     * @param neighbours number of living neighbours.
+     * @return true if the cell will be alive.
+     */
+    public boolean isBorn(int neighbours){ return (birth>>>neighbours&1)!=0; }
+
+    /**
+     * Checks if a living cell stays alive.
+     * @param neighbours number of living neighbours.
+     * @return true if the cell will be alive.
+     */
+    public boolean survives(int neighbours){ return (survival>>>neighbours&1)!=0; }
+
+    /**
+     * Returns next state of a cell from its 3x3 neighbourhood.
+     * @param neighbourhood index described in the table parameter.
+     * @return 1 if the cell will be alive, 0 if not.
+     */
+    public int next(int neighbourhood){ return table[neighbourhood]; }
+
+    /**
+     * Getter for the lookup table. The array must not be modified.
+     * @return the table.
+     */
+    public byte[] getTable(){ return table; }
+
+    /**
+     * Returns the rulestring in B/S notation.
+     * @return rulestring.
+     */
+    @Override
+    public String toString(){
+        StringBuilder sb=new StringBuilder("B");
+        for(int i=0; i<=8; i++){
+            if(isBorn(i)) sb.append(i);
+        }
+        sb.append("/S");
+        for(int i=0; i<=8; i++){
+            if(survives(i)) sb.append(i);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Two rules are equal if they have the same birth and survival conditions.
+     * @param o other object.
+     * @return true if equal.
+     */
+    @Override
+    public boolean equals(Object o){
+        return o instanceof Rule r && r.birth==birth && r.survival==survival;
+    }
+
+    /**
+     * Hash code consistent with equals.
+     * @return hash code.
+     */
+    @Override
+    public int hashCode(){ return birth<<9|survival; }
+}
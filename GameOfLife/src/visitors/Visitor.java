@@ -18,4 +18,10 @@ public interface Visitor {
      * @param c cell that will be affected by visitor.
      */
     public void visitDeadCell(Cell c);
+
+    /**
+     * Returns the rule applied by the visitor. Engines that do not use visitors apply this rule.
+     * @return the rule.
+     */
+    public Rule getRule();
 }
@@ -1,49 +1,23 @@
 package visitors;
 import automaton.JeuDeLaVie;
-import cells.Cell;
-import commands.*;
 
 /**
- * Implementation of the interface Visitor. Represent classic rules of the Game Of Life.
- * @param game  an instance of JeuDeLaVie to which the visitor is attached.
- * @param instance a unique instance of the visitor.
+ * Implementation of the interface Visitor. Represent rules of Day & Night (B3678/S34678), applied by VisitorRule.
+ * @param instance the instance of the visitor attached to the last game that asked for it.
  */
-public class VisitorDayNight implements Visitor{
-    protected JeuDeLaVie game;
+public class VisitorDayNight extends VisitorRule{
     private static VisitorDayNight instance;
 
     /**
-     * If a living cell has less than 3 or exactly 5 living neighbours - it will die in the next generation.
-     * @param c cell that will be affected by visitor.
-     */
-    @Override
-    public void visitLivingCell(Cell c) {
-        if( c.livingNeighbours(game) < 3 || c.livingNeighbours(game) == 5 ){
-            game.addCommand(new CommandDie(c));
-        }
-    }
-
-    /**
-     * If a dead cell has exactly 3 living neighbours or more than 5 - it will resurrect in the next generation.
-     * @param c cell that will be affected by visitor.
-     */
-    @Override
-    public void visitDeadCell(Cell c) {
-        if( c.livingNeighbours(game) == 3 || c.livingNeighbours(game) > 5){
-            game.addCommand(new CommandLive(c));
-        }
-    }
-
-    /**
-     * Creates an unique instance of VisitorDayNight.
+     * Returns the instance of VisitorDayNight attached to a game, created again when the last one was attached to another game.
+     * Instances already given keep their game, so that several games can run at once.
      * @param j an instance of JeuDeLaVie to which the visitor is attached.
      * @return an unique instnance of VisitorNight.
      */
     public static synchronized VisitorDayNight getInstance(JeuDeLaVie j){
-        if(VisitorDayNight.instance==null){
+        if(VisitorDayNight.instance==null || instance.game!=j){
             instance=new VisitorDayNight();
             instance.game=j;
-
         }
         return instance;
     }
@@ -51,5 +25,5 @@ public class VisitorDayNight implements Visitor{
     /**
      * Private constructor needed for implementing Singleton pattern.
      */
-    private VisitorDayNight(){super();}
+    private VisitorDayNight(){super(null, Rule.DAYNIGHT);}
 }
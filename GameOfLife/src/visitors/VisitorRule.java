@@ -0,0 +1,54 @@
+package visitors;
+import automaton.JeuDeLaVie;
+import cells.Cell;
+import commands.*;
+
+/**
+ * Implementation of the interface Visitor for any Life-like rule.
+ * Living neighbours are counted once per cell, then the rule decides what happens to the cell.
+ * @param game  an instance of JeuDeLaVie to which the visitor is attached.
+ * @param rule the rule applied by the visitor.
+ */
+public class VisitorRule implements Visitor{
+    protected JeuDeLaVie game;
+    protected final Rule rule;
+
+    /**
+     * Constructor for VisitorRule.
+     * @param game an instance of JeuDeLaVie to which the visitor is attached.
+     * @param rule the rule applied by the visitor.
+     */
+    public VisitorRule(JeuDeLaVie game, Rule rule){
+        this.game=game;
+        this.rule=rule;
+    }
+
+    /**
+     * If a living cell does not survive with its number of living neighbours - it will die in the next generation.
+     * @param c cell that will be affected by visitor.
+     */
+    @Override
+    public void visitLivingCell(Cell c) {
+        if(!rule.survives(c.livingNeighbours(game))){
+            game.addCommand(new CommandDie(c));
+        }
+    }
+
+    /**
+     * If a dead cell is born with its number of living neighbours - it will resurrect in the next generation.
+     * @param c cell that will be affected by visitor.
+     */
+    @Override
+    public void visitDeadCell(Cell c) {
+        if(rule.isBorn(c.livingNeighbours(game))){
+            game.addCommand(new CommandLive(c));
+        }
+    }
+
+    /**
+     * Getter for rule.
+     * @return the rule applied by the visitor.
+     */
+    @Override
+    public Rule getRule(){ return rule; }
+}
@@ -1 +1 @@
-java -jar GameOfLife.jar
\ No newline at end of file
+java --add-modules jdk.incubator.vector -jar GameOfLife.jar
\ No newline at end of file